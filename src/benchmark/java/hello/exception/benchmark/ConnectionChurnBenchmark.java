@@ -0,0 +1,214 @@
+package hello.exception.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 실패하는 요청 1000 건당 새 커넥션 수 측정
+ *
+ * HTTP/1.1 keep-alive 커넥션 하나를 최대한 재사용하면서 요청을 보내고,
+ * 서버가 Connection: close 를 보내거나 커넥션을 끊어서 새로 연결해야 했던 횟수를 센다.
+ * 같이 센다: Connection: close 응답 수, Content-Length 없이(chunked) 온 오류 응답 수.
+ *
+ * 시나리오 (경로별로 따로 측정)
+ *  - GET  /api/members/ex, /api/members/bad, /api/members/user-ex  (ExControllerAdvice)
+ *  - GET  /error-400, /error-404, /error-500                       (sendError)
+ *  - GET  /error-400 + 읽지 않는 16KB 바디                          (바디를 읽기 전에 실패, Tomcat 이 읽어서 버린다)
+ *
+ * 전/후 비교: 기본 설정(keep-alive-errors.enabled=false) 서버와 keep-alive-errors.enabled=true 로 띄운 서버에 각각 실행한다.
+ * 400/500 응답(/api/members/*, /error-400, /error-500)은 Tomcat 이 필터와 상관없이 커넥션을 닫으므로
+ * 두 설정 모두 newConns 가 요청 수와 같게 나오는 것이 정상이다. 차이는 /error-404 같은 나머지 상태에서만 볼 수 있다.
+ * ./gradlew connectionChurn -Purl=http://localhost:8080 -Prequests=1000
+ */
+public class ConnectionChurnBenchmark {
+
+    private static final List<String> PATHS = Arrays.asList(
+            "/api/members/ex", "/api/members/bad", "/api/members/user-ex",
+            "/error-400", "/error-404", "/error-500");
+    private static final int UNREAD_BODY_SIZE = 16 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = ErrorPathLoadTest.parseArgs(args);
+        URI base = URI.create(options.getOrDefault("url", "http://localhost:8080"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "1000"));
+
+        System.out.printf("%-40s %10s %14s %10s%n", "scenario", "newConns", "connClose", "chunked");
+        for (String path : PATHS) {
+            print(path, measure(base, path, 0, requests));
+        }
+        print("/error-400 (+16KB unread body)", measure(base, "/error-400", UNREAD_BODY_SIZE, requests));
+    }
+
+    private static void print(String scenario, long[] result) {
+        System.out.printf("%-40s %10d %14d %10d%n", scenario, result[0], result[1], result[2]);
+    }
+
+    /**
+     * @return [새 커넥션 수, Connection: close 응답 수, chunked 응답 수]
+     */
+    static long[] measure(URI base, String path, int bodySize, int requests) throws IOException {
+        byte[] request = buildRequest(base, path, bodySize);
+        long newConnections = 0;
+        long connectionClose = 0;
+        long chunked = 0;
+        Socket socket = null;
+        InputStream in = null;
+
+        for (int i = 0; i < requests; i++) {
+            boolean retried = false;
+            while (true) {
+                if (socket == null) {
+                    socket = new Socket(base.getHost(), base.getPort());
+                    in = new BufferedInputStream(socket.getInputStream());
+                    newConnections++;
+                }
+                try {
+                    socket.getOutputStream().write(request);
+                    socket.getOutputStream().flush();
+                    Response response = Response.read(in);
+                    if (response.connectionClose) {
+                        connectionClose++;
+                    }
+                    if (response.chunked) {
+                        chunked++;
+                    }
+                    if (response.connectionClose || response.untilEof) {
+                        socket.close();
+                        socket = null;
+                    }
+                    break;
+                } catch (IOException e) {
+                    // 서버가 Connection: close 없이 커넥션을 끊었다. 한 번만 다시 시도한다.
+                    socket.close();
+                    socket = null;
+                    if (retried) {
+                        throw e;
+                    }
+                    retried = true;
+                }
+            }
+        }
+        if (socket != null) {
+            socket.close();
+        }
+        return new long[]{newConnections, connectionClose, chunked};
+    }
+
+    private static byte[] buildRequest(URI base, String path, int bodySize) {
+        StringBuilder head = new StringBuilder()
+                .append("GET ").append(path).append(" HTTP/1.1\r\n")
+                .append("Host: ").append(base.getHost()).append(':').append(base.getPort()).append("\r\n")
+                .append("Accept: application/json\r\n");
+        if (bodySize > 0) {
+            head.append("Content-Type: application/octet-stream\r\n")
+                    .append("Content-Length: ").append(bodySize).append("\r\n");
+        }
+        head.append("\r\n");
+        byte[] headBytes = head.toString().getBytes(StandardCharsets.US_ASCII);
+        byte[] request = Arrays.copyOf(headBytes, headBytes.length + bodySize);
+        Arrays.fill(request, headBytes.length, request.length, (byte) 'x');
+        return request;
+    }
+
+    /**
+     * 커넥션 재사용 판단에 필요한 만큼만 읽는 최소한의 HTTP/1.1 응답 파서
+     * 같은 커넥션으로 다음 요청을 보내야 하므로 바디 끝까지 정확히 읽는다.
+     */
+    private static class Response {
+
+        boolean connectionClose;
+        boolean chunked;
+        boolean untilEof;
+
+        static Response read(InputStream in) throws IOException {
+            Response response = new Response();
+            String statusLine = readLine(in);
+            if (statusLine == null) {
+                throw new IOException("connection closed before response");
+            }
+            long contentLength = -1;
+            String line;
+            while ((line = readLine(in)) != null && !line.isEmpty()) {
+                int colon = line.indexOf(':');
+                if (colon < 0) {
+                    continue;
+                }
+                String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+                String value = line.substring(colon + 1).trim();
+                if (name.equals("content-length")) {
+                    contentLength = Long.parseLong(value);
+                } else if (name.equals("transfer-encoding") && value.equalsIgnoreCase("chunked")) {
+                    response.chunked = true;
+                } else if (name.equals("connection") && value.equalsIgnoreCase("close")) {
+                    response.connectionClose = true;
+                }
+            }
+
+            if (response.chunked) {
+                readChunked(in);
+            } else if (contentLength >= 0) {
+                skipFully(in, contentLength);
+            } else {
+                response.untilEof = true;
+                while (in.read() != -1) {
+                    // 길이를 모르면 서버가 닫을 때까지 읽는다.
+                }
+            }
+            return response;
+        }
+
+        private static void readChunked(InputStream in) throws IOException {
+            while (true) {
+                String sizeLine = readLine(in);
+                if (sizeLine == null) {
+                    throw new IOException("unexpected end of chunked body");
+                }
+                int semicolon = sizeLine.indexOf(';');
+                long size = Long.parseLong((semicolon < 0 ? sizeLine : sizeLine.substring(0, semicolon)).trim(), 16);
+                if (size == 0) {
+                    String trailer;
+                    while ((trailer = readLine(in)) != null && !trailer.isEmpty()) {
+                        // trailer 무시
+                    }
+                    return;
+                }
+                skipFully(in, size);
+                readLine(in); // chunk 끝의 CRLF
+            }
+        }
+
+        private static void skipFully(InputStream in, long n) throws IOException {
+            byte[] skip = new byte[8192];
+            while (n > 0) {
+                int read = in.read(skip, 0, (int) Math.min(skip.length, n));
+                if (read == -1) {
+                    throw new IOException("unexpected end of body");
+                }
+                n -= read;
+            }
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b == '\n') {
+                    byte[] bytes = line.toByteArray();
+                    int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+                    return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+                }
+                line.write(b);
+            }
+            return line.size() == 0 ? null : line.toString(StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package hello.exception.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 오류 경로 부하 테스트
+ *
+ * 여러 base URL (예: MVC 8080, WebFlux 8081) 에 같은 경로들을 돌아가며 요청하고
+ * 처리량, 지연 시간(p50/p99/max), 상태 코드 분포를 출력한다.
+ * URL 이 둘 이상이면 먼저 경로마다 상태 코드와 응답 바디가 바이트 단위로 같은지 확인하고, 다르면 종료 코드 1 로 끝낸다.
+ *
+ * --urls=http://localhost:8080,http://localhost:8081
+ * --paths=/api/members/ex,/api/members/bad
+ * --threads=32 --requests=20000
+ */
+public class ErrorPathLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        List<String> urls = Arrays.asList(options.getOrDefault("urls", "http://localhost:8080").split(","));
+        List<String> paths = Arrays.asList(options.getOrDefault("paths", "/api/members/ex").split(","));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "32"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "20000"));
+
+        if (urls.size() > 1) {
+            int mismatches = compareResponses(urls, paths);
+            if (mismatches > 0) {
+                System.out.printf("%d path(s) differ between %s%n", mismatches, urls);
+                System.exit(1);
+            }
+        }
+        for (String url : urls) {
+            run(url, paths, threads, requests / 10); // 워밍업
+            System.out.println(run(url, paths, threads, requests));
+        }
+    }
+
+    static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int eq = arg.indexOf('=');
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+
+    public static Result run(String baseUrl, List<String> paths, int threads, int requests) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        List<HttpRequest> httpRequests = new ArrayList<>();
+        for (String path : paths) {
+            httpRequests.add(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build());
+        }
+
+        long[] latencies = new long[requests];
+        AtomicLong next = new AtomicLong();
+        Map<Integer, AtomicLong> statuses = new TreeMap<>();
+        for (int status : new int[]{200, 400, 404, 500}) {
+            statuses.put(status, new AtomicLong());
+        }
+        AtomicLong otherStatus = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                long i;
+                while ((i = next.getAndIncrement()) < requests) {
+                    HttpRequest request = httpRequests.get((int) (i % httpRequests.size()));
+                    long begin = System.nanoTime();
+                    try {
+                        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        statuses.getOrDefault(response.statusCode(), otherStatus).incrementAndGet();
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                    latencies[(int) i] = System.nanoTime() - begin;
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        Arrays.sort(latencies);
+        Map<String, Long> statusCounts = new TreeMap<>();
+        statuses.forEach((status, count) -> statusCounts.put(String.valueOf(status), count.get()));
+        statusCounts.put("other", otherStatus.get());
+        statusCounts.put("failed", failures.get());
+        return new Result(baseUrl, requests, elapsed,
+                latencies[requests / 2], latencies[(int) (requests * 0.99)], latencies[requests - 1], statusCounts);
+    }
+
+    /**
+     * @return 상태 코드나 바디가 첫 번째 URL 과 다른 경로 수
+     */
+    static int compareResponses(List<String> urls, List<String> paths) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        int mismatches = 0;
+        for (String path : paths) {
+            HttpResponse<byte[]> expected = null;
+            boolean mismatch = false;
+            for (String url : urls) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(url + path))
+                        .header("Accept", "application/json")
+                        .build();
+                HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                String body = new String(response.body(), StandardCharsets.UTF_8);
+                if (expected == null) {
+                    expected = response;
+                } else if (expected.statusCode() != response.statusCode()
+                        || !Arrays.equals(expected.body(), response.body())) {
+                    System.out.printf("MISMATCH %s%n  %s -> %d %s%n  %s -> %d %s%n", path,
+                            urls.get(0), expected.statusCode(), new String(expected.body(), StandardCharsets.UTF_8),
+                            url, response.statusCode(), body);
+                    mismatch = true;
+                    continue;
+                }
+                System.out.printf("%s%s -> %d %s%n", url, path, response.statusCode(), body);
+            }
+            if (mismatch) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    public static class Result {
+
+        private final String baseUrl;
+        private final int requests;
+        private final long elapsedNanos;
+        private final long p50;
+        private final long p99;
+        private final long max;
+        private final Map<String, Long> statusCounts;
+
+        Result(String baseUrl, int requests, long elapsedNanos, long p50, long p99, long max,
+               Map<String, Long> statusCounts) {
+            this.baseUrl = baseUrl;
+            this.requests = requests;
+            this.elapsedNanos = elapsedNanos;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.max = max;
+            this.statusCounts = statusCounts;
+        }
+
+        public double throughput() {
+            return requests / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s requests=%d throughput=%.0f req/s p50=%.2fms p99=%.2fms max=%.2fms status=%s",
+                    baseUrl, requests, requests / (elapsedNanos / 1e9),
+                    p50 / 1e6, p99 / 1e6, max / 1e6, statusCounts);
+        }
+    }
+}
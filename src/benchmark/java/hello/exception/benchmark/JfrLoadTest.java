@@ -0,0 +1,107 @@
+package hello.exception.benchmark;
+
+import hello.exception.ExceptionApplication;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * JFR 녹화를 켠 상태로 애플리케이션을 띄우고 부하 테스트를 돌린 다음, 오류 처리 파이프라인 이벤트를 요약한다.
+ *
+ * 녹화 설정은 classpath 의 jfr/error-pipeline.jfc 를 사용한다.
+ * 요약: 이벤트 타입별 개수, 평균/최대 지속 시간, ExceptionResolved 의 (resolver, 예외 타입) 별 개수
+ * 한 건도 없는 타입도 count=0 으로 출력해서, 이벤트가 빠진 것인지 바로 보이게 한다.
+ *
+ * 기본 경로에서 기대하는 이벤트
+ *  - /api/members/* : ExControllerAdvice(ExceptionHandlerExceptionResolver) 가 바로 응답하므로 ExceptionResolved 만 남는다.
+ *    (ExceptionResolver 체인에 들어온 뒤 처리까지 threshold 5ms 를 넘은 것만)
+ *  - /error-ex, /error-404 : WAS 까지 전파되거나 sendError 로 끝나므로 ErrorDispatch + ErrorViewRendered (/error)
+ *  - ExceptionThrown 은 ExceptionResolver 가 처리하지 못한 예외(/error-ex)에서만 남는다.
+ *
+ * ./gradlew jfrLoadTest [-Prequests=20000 -Pthreads=32]
+ */
+public class JfrLoadTest {
+
+    private static final String EVENT_PREFIX = "hello.exception.";
+    private static final List<String> EVENT_TYPES = Arrays.asList(
+            "ErrorDispatch", "ErrorViewRendered", "ExceptionResolved", "ExceptionThrown");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = ErrorPathLoadTest.parseArgs(args);
+        List<String> paths = Arrays.asList(options.getOrDefault("paths",
+                "/api/members/ex,/api/members/bad,/api/members/user-ex,/error-ex,/error-404").split(","));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "32"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "20000"));
+        Path output = Paths.get(options.getOrDefault("output", "build/jfr/error-pipeline.jfr"));
+
+        ConfigurableApplicationContext context = SpringApplication.run(ExceptionApplication.class,
+                "--server.port=0", "--logging.level.root=WARN");
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+        try (Recording recording = new Recording(loadConfiguration())) {
+            ErrorPathLoadTest.run(baseUrl, paths, threads, requests / 10); // 워밍업은 녹화하지 않는다.
+
+            recording.setToDisk(true);
+            recording.start();
+            System.out.println(ErrorPathLoadTest.run(baseUrl, paths, threads, requests));
+            recording.stop();
+
+            Files.createDirectories(output.toAbsolutePath().getParent());
+            recording.dump(output);
+        } finally {
+            context.close();
+        }
+
+        summarize(output);
+    }
+
+    private static Configuration loadConfiguration() throws Exception {
+        try (Reader reader = new InputStreamReader(
+                JfrLoadTest.class.getResourceAsStream("/jfr/error-pipeline.jfc"), StandardCharsets.UTF_8)) {
+            return Configuration.create(reader);
+        }
+    }
+
+    private static void summarize(Path output) throws Exception {
+        Map<String, long[]> byType = new TreeMap<>(); // [count, totalNanos, maxNanos]
+        EVENT_TYPES.forEach(type -> byType.put(EVENT_PREFIX + type, new long[3]));
+        Map<String, Long> resolved = new TreeMap<>();
+
+        for (RecordedEvent event : RecordingFile.readAllEvents(output)) {
+            String name = event.getEventType().getName();
+            if (!name.startsWith(EVENT_PREFIX)) {
+                continue;
+            }
+            long nanos = event.getDuration().toNanos();
+            long[] stats = byType.computeIfAbsent(name, key -> new long[3]);
+            stats[0]++;
+            stats[1] += nanos;
+            stats[2] = Math.max(stats[2], nanos);
+
+            if (name.equals(EVENT_PREFIX + "ExceptionResolved")) {
+                String key = event.getString("resolver") + " " + event.getString("exceptionType")
+                        + " -> " + event.getInt("status");
+                resolved.merge(key, 1L, Long::sum);
+            }
+        }
+
+        System.out.println("== JFR summary: " + output.toAbsolutePath());
+        byType.forEach((name, stats) -> System.out.printf("%-40s count=%-8d avg=%-10s max=%s%n",
+                name, stats[0], Duration.ofNanos(stats[1] / Math.max(1, stats[0])), Duration.ofNanos(stats[2])));
+        resolved.forEach((key, count) -> System.out.printf("  %-80s %d%n", key, count));
+    }
+}
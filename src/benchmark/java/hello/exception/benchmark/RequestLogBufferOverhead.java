@@ -0,0 +1,155 @@
+package hello.exception.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.helpers.NOPAppender;
+import hello.exception.ExceptionApplication;
+import hello.exception.logging.RequestLogBuffer;
+import hello.exception.logging.RequestLogBufferTurboFilter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * RequestLogBuffer 의 오버헤드 측정
+ *
+ * TurboFilter 는 JVM 전체(LoggerContext)에 걸리므로, 한 번 등록되면 요청 밖의 로그와 출력되는 INFO/WARN 로그도
+ * 모두 필터 체인을 거친다. (logback 은 인자를 Object[] 로 감싸서 넘긴다) 그래서 호출 종류별로 따로 잰다.
+ *
+ * 1. 호출 단위 (ns/call, TurboFilter 없음 vs 있음)
+ *  - debug-off   : 요청 밖에서 꺼져있는 DEBUG (버퍼 비활성)
+ *  - info-on     : 출력되는 INFO (NOP appender)
+ *  - debug-req   : 요청 안에서 꺼져있는 DEBUG, begin -> DEBUG -> discard (LogInterceptor 와 같은 흐름)
+ * 2. 애플리케이션 전체 (req/s, request-log-buffer.enabled=false vs true)
+ *  - 같은 JVM 에서 애플리케이션을 번갈아 띄우고 정상 요청(/api/members/{id}, DEBUG 로그 1 개)에 부하를 준다.
+ *
+ * --calls=5000000 --app-requests=50000 --threads=32
+ * --max-call-overhead-ns=5 : 호출 단위 오버헤드가 넘으면 종료 코드 1
+ * --max-app-overhead-pct=2 : 애플리케이션 처리량 감소가 넘으면 종료 코드 1
+ *
+ * ./gradlew requestLogBufferOverhead
+ */
+public class RequestLogBufferOverhead {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestLogBufferOverhead.class);
+    private static final Logger infoLog = LoggerFactory.getLogger("bench.info");
+
+    private static final List<String> SCENARIOS = Arrays.asList("debug-off", "info-on", "debug-req");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = ErrorPathLoadTest.parseArgs(args);
+        int calls = Integer.parseInt(options.getOrDefault("calls", "5000000"));
+        int appRequests = Integer.parseInt(options.getOrDefault("app-requests", "50000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "32"));
+        double maxCallOverheadNanos = Double.parseDouble(options.getOrDefault("max-call-overhead-ns", "-1"));
+        double maxAppOverheadPercent = Double.parseDouble(options.getOrDefault("max-app-overhead-pct", "-1"));
+
+        double worstCall = measureCalls(calls);
+        double appOverhead = measureApplication(appRequests, threads);
+
+        boolean failed = false;
+        if (maxCallOverheadNanos >= 0 && worstCall > maxCallOverheadNanos) {
+            System.out.printf("call overhead %.1f ns > %.1f ns%n", worstCall, maxCallOverheadNanos);
+            failed = true;
+        }
+        if (maxAppOverheadPercent >= 0 && appOverhead > maxAppOverheadPercent) {
+            System.out.printf("application throughput overhead %.1f%% > %.1f%%%n", appOverhead, maxAppOverheadPercent);
+            failed = true;
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return 마지막 라운드에서 가장 큰 호출당 오버헤드 (ns)
+     */
+    private static double measureCalls(int calls) {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+        ch.qos.logback.classic.Logger info = loggerContext.getLogger("bench.info");
+        NOPAppender<ILoggingEvent> nop = new NOPAppender<>();
+        nop.setContext(loggerContext);
+        nop.start();
+        info.addAppender(nop);
+        info.setAdditive(false);
+
+        RequestLogBufferTurboFilter turboFilter = new RequestLogBufferTurboFilter();
+        turboFilter.setContext(loggerContext);
+        turboFilter.start();
+
+        double worst = 0;
+        for (int round = 0; round < 3; round++) { // 앞의 라운드는 워밍업
+            worst = 0;
+            StringBuilder line = new StringBuilder("round " + round + ":");
+            for (String scenario : SCENARIOS) {
+                loggerContext.getTurboFilterList().remove(turboFilter);
+                double without = (double) measure(scenario, calls) / calls;
+                loggerContext.addTurboFilter(turboFilter);
+                double with = (double) measure(scenario, calls) / calls;
+                worst = Math.max(worst, with - without);
+                line.append(String.format(" %s %.1f -> %.1f ns/call", scenario, without, with));
+            }
+            System.out.println(line);
+        }
+        loggerContext.getTurboFilterList().remove(turboFilter);
+        return worst;
+    }
+
+    private static long measure(String scenario, int calls) {
+        long start = System.nanoTime();
+        switch (scenario) {
+            case "debug-off":
+                for (int i = 0; i < calls; i++) {
+                    log.debug("call {}", i);
+                }
+                break;
+            case "info-on":
+                for (int i = 0; i < calls; i++) {
+                    infoLog.info("call {}", i);
+                }
+                break;
+            default:
+                for (int i = 0; i < calls; i += 10) { // 요청 하나에 DEBUG 10 번
+                    RequestLogBuffer.begin("bench");
+                    for (int j = 0; j < 10; j++) {
+                        log.debug("request {} step {}", i, j);
+                    }
+                    RequestLogBuffer.discard();
+                }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * @return 버퍼를 켰을 때 처리량 감소율 (%)
+     */
+    private static double measureApplication(int requests, int threads) throws Exception {
+        List<String> paths = Arrays.asList("/api/members/spring", "/api/members/hello");
+        double[] throughput = new double[2]; // [꺼짐, 켜짐], 마지막 라운드 값
+        for (int round = 0; round < 2; round++) { // 첫 라운드는 워밍업
+            for (int enabled = 0; enabled < 2; enabled++) {
+                ConfigurableApplicationContext context = SpringApplication.run(ExceptionApplication.class,
+                        "--server.port=0", "--logging.level.root=WARN",
+                        "--request-log-buffer.enabled=" + (enabled == 1));
+                try {
+                    String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                    ErrorPathLoadTest.run(baseUrl, paths, threads, requests / 10);
+                    ErrorPathLoadTest.Result result = ErrorPathLoadTest.run(baseUrl, paths, threads, requests);
+                    throughput[enabled] = result.throughput();
+                    System.out.printf("app round %d request-log-buffer.enabled=%s: %s%n", round, enabled == 1, result);
+                } finally {
+                    context.close();
+                }
+            }
+        }
+        double overhead = (throughput[0] - throughput[1]) / throughput[0] * 100;
+        System.out.printf("application: %.0f -> %.0f req/s (overhead %.1f%%)%n", throughput[0], throughput[1], overhead);
+        return overhead;
+    }
+}
@@ -1,10 +1,29 @@
 package hello.exception;
 
+import hello.exception.budget.ErrorBudget;
+import hello.exception.coalesce.CoalescingFilter;
+import hello.exception.coalesce.CoalescingMetrics;
+import hello.exception.filter.ErrorBudgetFilter;
+import hello.exception.filter.ErrorDispatchFilter;
+import hello.exception.filter.KeepAliveErrorFilter;
 import hello.exception.filter.LogFilter;
 import hello.exception.interceptor.LogInterceptor;
+import hello.exception.journal.ErrorJournal;
 import hello.exception.resolver.MyHandlerExceptionResolver;
+import hello.exception.resolver.TimedHandlerExceptionResolver;
 import hello.exception.resolver.UserHandlerExceptionResolver;
+import hello.exception.servlet.InstrumentedErrorController;
+import hello.exception.stats.ErrorCounters;
 import java.util.List;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.autoconfigure.web.servlet.error.BasicErrorController;
+import org.springframework.boot.autoconfigure.web.servlet.error.ErrorViewResolver;
+import org.springframework.boot.web.servlet.error.ErrorAttributes;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -17,8 +36,12 @@ import javax.servlet.Filter;
 
 
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
+    private final ErrorCounters errorCounters;
+    private final ErrorJournal errorJournal;
+
    /*
 
     # 서블릿 예외 처리 - 필터
@@ -73,6 +96,85 @@ public class WebConfig implements WebMvcConfigurer {
         return filterRegistrationBean;
     }
 
+    /*
+    오류 페이지 요청 JFR 이벤트 필터
+    logFilter() 는 등록하지 않고 인터셉터는 /error 를 제외하므로, ERROR 요청만 보는 필터를 따로 등록한다.
+    DispatcherType.ERROR 만 지정해서 클라이언트 요청(REQUEST)에는 호출되지 않는다.
+     */
+    @Bean
+    public FilterRegistrationBean<Filter> errorDispatchFilter() {
+        FilterRegistrationBean<Filter> filterRegistrationBean = new FilterRegistrationBean<>();
+        filterRegistrationBean.setFilter(new ErrorDispatchFilter());
+        filterRegistrationBean.setOrder(1);
+        filterRegistrationBean.addUrlPatterns("/*");
+        filterRegistrationBean.setDispatcherTypes(DispatcherType.ERROR);
+        return filterRegistrationBean;
+    }
+
+    /*
+    스프링 부트 기본 BasicErrorController 대신 등록한다. (ErrorMvcAutoConfiguration 은 ErrorController 빈이 있으면 등록하지 않는다)
+    동작은 같고, /error 에서 오류 화면을 만들 때 ErrorViewRendered 이벤트를 남긴다.
+     */
+    @Bean
+    public BasicErrorController basicErrorController(ErrorAttributes errorAttributes, ServerProperties serverProperties,
+                                                     ObjectProvider<ErrorViewResolver> errorViewResolvers) {
+        return new InstrumentedErrorController(errorAttributes, serverProperties.getError(),
+                errorViewResolvers.orderedStream().collect(Collectors.toList()));
+    }
+
+    /*
+    오류 응답 커넥션 유지 필터
+    가장 바깥에서 오류 응답(4xx/5xx) 바디에 Content-Length 를 붙인다. 정상 응답은 그대로 통과시킨다.
+    오류 화면 요청(ERROR)의 응답에도 Content-Length 를 붙여야 하므로 ERROR 도 포함한다.
+    기본은 꺼져있다. 400/500 같은 상태는 Tomcat 이 커넥터에서 직접 커넥션을 닫으므로 필터로는 막을 수 없고,
+    개선 효과가 측정되지 않았다. (KeepAliveErrorFilter, ConnectionChurnBenchmark 참고)
+     */
+    @Bean
+    @ConditionalOnProperty(name = "keep-alive-errors.enabled", havingValue = "true")
+    public FilterRegistrationBean<Filter> keepAliveErrorFilter(
+            @Value("${keep-alive-errors.buffer-size:8192}") int bufferSize) {
+        FilterRegistrationBean<Filter> filterRegistrationBean = new FilterRegistrationBean<>();
+        filterRegistrationBean.setFilter(new KeepAliveErrorFilter(bufferSize));
+        filterRegistrationBean.setOrder(-1);
+        filterRegistrationBean.addUrlPatterns("/*");
+        filterRegistrationBean.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ERROR);
+        return filterRegistrationBean;
+    }
+
+    /*
+    4xx 오류 예산 필터
+    LogFilter(order 1) 보다 먼저 실행되어서, 예산을 넘긴 클라이언트는 로그도 남기지 않고 바로 429 를 받는다.
+    클라이언트 요청만 대상이므로 DispatcherType 은 기본 값(REQUEST) 그대로 둔다.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "error-budget.enabled", havingValue = "true")
+    public FilterRegistrationBean<Filter> errorBudgetFilter(ErrorBudget errorBudget) {
+        FilterRegistrationBean<Filter> filterRegistrationBean = new FilterRegistrationBean<>();
+        filterRegistrationBean.setFilter(new ErrorBudgetFilter(errorBudget));
+        filterRegistrationBean.setOrder(0);
+        filterRegistrationBean.addUrlPatterns("/*");
+        return filterRegistrationBean;
+    }
+
+    /*
+    동일 GET 요청 병합 필터
+    멱등한 핸들러의 URL 패턴에만 적용한다. 같은 요청이 동시에 들어오면 한 번만 실행하고 결과(오류 응답 포함)를 나눠준다.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "coalescing.enabled", havingValue = "true")
+    public FilterRegistrationBean<Filter> coalescingFilter(
+            CoalescingMetrics coalescingMetrics,
+            @Value("${coalescing.url-patterns:/api/members/*}") String[] urlPatterns,
+            @Value("${coalescing.key-headers:Accept,Authorization,X-API-Key}") List<String> keyHeaders,
+            @Value("${coalescing.max-wait-ms:1000}") long maxWaitMillis,
+            @Value("${coalescing.max-body-bytes:65536}") int maxBodyBytes) {
+        FilterRegistrationBean<Filter> filterRegistrationBean = new FilterRegistrationBean<>();
+        filterRegistrationBean.setFilter(new CoalescingFilter(keyHeaders, maxWaitMillis, maxBodyBytes, coalescingMetrics));
+        filterRegistrationBean.setOrder(2);
+        filterRegistrationBean.addUrlPatterns(urlPatterns);
+        return filterRegistrationBean;
+    }
+
     /*
 
     # 서블릿 예외 처리 - 인터셉터
@@ -113,8 +215,13 @@ public class WebConfig implements WebMvcConfigurer {
 
     @Override
     public void extendHandlerExceptionResolvers(List<HandlerExceptionResolver> resolvers) {
-        resolvers.add(new MyHandlerExceptionResolver());
-        resolvers.add(new UserHandlerExceptionResolver());
+        resolvers.add(new MyHandlerExceptionResolver(errorCounters, errorJournal));
+        resolvers.add(new UserHandlerExceptionResolver(errorCounters, errorJournal));
+
+        // 체인 전체를 하나로 감싸서 예외가 처리되기까지 걸린 시간을 ExceptionResolved 이벤트로 남긴다.
+        TimedHandlerExceptionResolver timed = new TimedHandlerExceptionResolver(resolvers);
+        resolvers.clear();
+        resolvers.add(timed);
     }
 
     /**
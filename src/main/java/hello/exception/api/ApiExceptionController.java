@@ -18,7 +18,14 @@ public class ApiExceptionController {
 
     @GetMapping("/api/members/{id}")
     public MemberDto getMember(@PathVariable("id") String id) {
+        log.debug("getMember id={}", id);
+        return findMember(id);
+    }
 
+    /**
+     * 회원 조회 규칙 (ApiExceptionExportController 에서도 같은 규칙으로 조회한다.)
+     */
+    static MemberDto findMember(String id) {
         if (id.equals("ex")) {
             throw new RuntimeException("잘못된 사용자");
         }
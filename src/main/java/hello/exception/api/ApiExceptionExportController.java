@@ -0,0 +1,142 @@
+package hello.exception.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import hello.exception.exception.UserException;
+import hello.exception.exhandler.ErrorResult;
+import java.io.IOException;
+import java.io.OutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * 회원 대량 조회 (NDJSON 스트리밍)
+ *
+ * 응답 전체를 메모리에 만들지 않고 StreamingResponseBody 로 한 줄에 하나씩 회원을 내려보낸다.
+ * 메모리 사용량은 레코드 수와 무관하게 일정하다.
+ *
+ * 스트리밍 도중 예외가 발생하면 이미 응답이 커밋된 상태이므로 ExControllerAdvice 가 처리할 수 없다.
+ * (상태 코드, 헤더를 바꿀 수 없다.)
+ * 그래서 예외를 직접 잡아서 ExControllerAdvice 와 같은 ErrorResult 모양의 오류 프레임을 같은 스트림에 쓴다.
+ *  - UserException : USER-EX 프레임을 쓰고 다음 레코드로 계속 진행
+ *  - RuntimeException : EX 프레임을 쓰고 스트림을 정상 종료
+ *
+ * count 는 0 ~ export.max-count 까지 허용한다. 범위를 벗어나면 스트리밍을 시작하기 전에 400 (BAD) 으로 응답한다.
+ *
+ * 테스트 해보자.
+ * http://localhost:8080/api/export/members?count=10
+ * http://localhost:8080/api/export/members?count=10&userExAt=3&exAt=7
+ */
+@Slf4j
+@RestController
+public class ApiExceptionExportController {
+
+    private static final int FLUSH_INTERVAL = 1000; // 레코드 n 개마다 flush 해서 클라이언트가 점진적으로 받도록 한다.
+    private static final byte[] NEW_LINE = {'\n'};
+
+    private final ObjectMapper objectMapper;
+    private final long maxCount;
+
+    public ApiExceptionExportController(ObjectMapper objectMapper,
+                                        @Value("${export.max-count:10000000}") long maxCount) {
+        // 레코드마다 flush 하지 않도록 FLUSH_AFTER_WRITE_VALUE 를 끈다.
+        this.objectMapper = objectMapper.copy().disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.maxCount = maxCount;
+    }
+
+    // produces 를 지정하지 않는다. 지정하면 count 검증 실패 시 ErrorResult(JSON) 를 쓰지 못하고 406 이 된다.
+    @GetMapping("/api/export/members")
+    public ResponseEntity<StreamingResponseBody> exportMembers(
+            @RequestParam(defaultValue = "100") long count,
+            @RequestParam(required = false) Long userExAt,
+            @RequestParam(required = false) Long exAt) {
+
+        // 응답이 커밋되기 전이므로 ExControllerAdvice 가 400 으로 처리한다.
+        if (count < 0 || count > maxCount) {
+            throw new IllegalArgumentException("count 는 0 ~ " + maxCount + " 사이여야 합니다.");
+        }
+
+        StreamingResponseBody body = outputStream -> writeMembers(outputStream, count, userExAt, exAt);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private void writeMembers(OutputStream outputStream, long count, Long userExAt, Long exAt) throws IOException {
+        if (count == 0) {
+            return; // 빈 NDJSON 은 빈 바디다.
+        }
+        try (SequenceWriter writer = objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .writeValues(new NonClosingOutputStream(outputStream))) {
+
+            for (long i = 0; i < count; i++) {
+                try {
+                    writer.write(ApiExceptionController.findMember(memberId(i, userExAt, exAt)));
+                } catch (UserException e) {
+                    log.warn("[export] user-ex at {}", i, e);
+                    writer.write(new ErrorResult("USER-EX", e.getMessage()));
+                } catch (RuntimeException e) {
+                    log.error("[export] ex at {}", i, e);
+                    writer.write(new ErrorResult("EX", "내부 오류"));
+                    break; // 더 진행할 수 없는 오류는 스트림을 정상 종료한다.
+                }
+
+                if ((i + 1) % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        outputStream.write(NEW_LINE); // NDJSON 은 마지막 줄도 개행으로 끝난다.
+        outputStream.flush();
+    }
+
+    private static String memberId(long index, Long userExAt, Long exAt) {
+        if (userExAt != null && index == userExAt) {
+            return "user-ex";
+        }
+        if (exAt != null && index == exAt) {
+            return "ex";
+        }
+        return "member-" + index;
+    }
+
+    /**
+     * SequenceWriter 를 닫을 때 서블릿 출력 스트림까지 닫히지 않도록 막는다.
+     */
+    private static class NonClosingOutputStream extends OutputStream {
+
+        private final OutputStream delegate;
+
+        NonClosingOutputStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.flush();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package hello.exception.budget;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 동시성 count-min sketch
+ *
+ * depth 개의 행마다 서로 다른 해시로 칸을 고르고, 추정값은 그 칸들 중 최솟값이다. (과대 추정만 있고 과소 추정은 없다.)
+ * 칸 하나가 AtomicLongArray 의 원소 하나라서 서로 다른 클라이언트의 증가는 대부분 다른 칸에 떨어진다. (락 없음)
+ * 메모리는 depth * width * 8 바이트로 클라이언트 수와 무관하다.
+ *
+ * 행별 해시는 키 전체를 시드가 다른 64비트 해시 두 개(h1, h2)로 계산해서 h1 + row * h2 로 만든다.
+ * String.hashCode() 는 충돌을 쉽게 만들 수 있어서 쓰지 않는다. (같은 hashCode 면 모든 행에서 같은 칸이 된다.)
+ * 시드는 인스턴스마다 무작위로 정하므로 밖에서 특정 키와 같은 칸에 떨어지는 키를 미리 계산할 수 없다.
+ */
+class CountMinSketch {
+
+    private static final int MAX_DEPTH = 8;
+    private static final long C1 = 0x87C37B91114253D5L;
+    private static final long C2 = 0x4CF5AD432745937FL;
+
+    private final int depth;
+    private final int width;
+    private final int mask;
+    private final long seed1;
+    private final long seed2;
+    private final AtomicLongArray cells;
+
+    CountMinSketch(int depth, int width) {
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("depth must be 1.." + MAX_DEPTH);
+        }
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("width must be a power of two");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.mask = width - 1;
+        SecureRandom random = new SecureRandom();
+        this.seed1 = random.nextLong();
+        this.seed2 = random.nextLong();
+        this.cells = new AtomicLongArray(depth * width);
+    }
+
+    /**
+     * 1 증가시키고 증가 후 추정값을 돌려준다.
+     */
+    long increment(String key) {
+        long h1 = hash(key, seed1);
+        long h2 = hash(key, seed2) | 1; // 홀수여야 행마다 칸이 겹치지 않고 퍼진다.
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            long value = cells.incrementAndGet(index(h1, h2, row));
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    long estimate(String key) {
+        long h1 = hash(key, seed1);
+        long h2 = hash(key, seed2) | 1;
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, cells.get(index(h1, h2, row)));
+        }
+        return min;
+    }
+
+    void clear() {
+        for (int i = 0; i < cells.length(); i++) {
+            cells.set(i, 0);
+        }
+    }
+
+    private int index(long h1, long h2, int row) {
+        return row * width + (int) ((h1 + row * h2) & mask);
+    }
+
+    /**
+     * murmur3 (x64) 방식으로 문자 4 개(64비트)씩 섞는 시드 해시
+     */
+    static long hash(String key, long seed) {
+        int length = key.length();
+        long h = seed;
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            long k = key.charAt(i)
+                    | (long) key.charAt(i + 1) << 16
+                    | (long) key.charAt(i + 2) << 32
+                    | (long) key.charAt(i + 3) << 48;
+            h ^= mixK(k);
+            h = Long.rotateLeft(h, 27) * 5 + 0x52DCE729;
+        }
+        long k = 0;
+        for (int shift = 0; i < length; i++, shift += 16) {
+            k |= (long) key.charAt(i) << shift;
+        }
+        h ^= mixK(k);
+        h ^= length;
+        return fmix(h);
+    }
+
+    private static long mixK(long k) {
+        k *= C1;
+        k = Long.rotateLeft(k, 31);
+        return k * C2;
+    }
+
+    private static long fmix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
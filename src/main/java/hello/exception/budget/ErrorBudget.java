@@ -0,0 +1,130 @@
+package hello.exception.budget;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 클라이언트별 4xx 오류 예산
+ *
+ * 클라이언트(IP)마다 window 동안 budget 개의 4xx 를 허용한다.
+ * - 카운트는 count-min sketch 두 개(현재 window, 직전 window)로 근사한다. 직전 window 는 남은 비율만큼 가중치를 줘서
+ *   window 경계에서 예산이 한 번에 리셋되지 않도록 한다. (sliding window 근사)
+ * - 예산을 넘긴 클라이언트만 정확한 키로 차단 테이블(heavy hitter)에 넣는다. 크기는 max-blocked 로 제한된다.
+ * 따라서 클라이언트가 수백만이어도 메모리는 sketch 크기 + 차단 테이블 크기로 고정된다.
+ *   테이블이 가득 차면 만료된 항목을 정리하는데, 정리는 sweep 간격(window / 10)마다 한 스레드만 한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "error-budget.enabled", havingValue = "true")
+public class ErrorBudget {
+
+    private final long budget;
+    private final long windowMillis;
+    private final int maxBlocked;
+    private final long sweepIntervalMillis;
+
+    private final CountMinSketch[] sketches;
+    private final AtomicLong currentWindow;
+    private final Map<String, Long> blockedUntil = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep = new AtomicLong();
+
+    public ErrorBudget(@Value("${error-budget.budget:100}") long budget,
+                       @Value("${error-budget.window-ms:10000}") long windowMillis,
+                       @Value("${error-budget.sketch-depth:4}") int sketchDepth,
+                       @Value("${error-budget.sketch-width:65536}") int sketchWidth,
+                       @Value("${error-budget.max-blocked:10000}") int maxBlocked) {
+        this.budget = budget;
+        this.windowMillis = windowMillis;
+        this.maxBlocked = maxBlocked;
+        this.sweepIntervalMillis = Math.max(1, windowMillis / 10);
+        this.sketches = new CountMinSketch[]{
+                new CountMinSketch(sketchDepth, sketchWidth),
+                new CountMinSketch(sketchDepth, sketchWidth)
+        };
+        this.currentWindow = new AtomicLong(System.currentTimeMillis() / windowMillis);
+    }
+
+    /**
+     * 차단 중이면 남은 시간(ms), 아니면 0
+     */
+    public long blockedFor(String client) {
+        Long until = blockedUntil.get(client);
+        if (until == null) {
+            return 0;
+        }
+        long remaining = until - System.currentTimeMillis();
+        if (remaining <= 0) {
+            blockedUntil.remove(client, until); // 예산이 다시 채워졌다.
+            return 0;
+        }
+        return remaining;
+    }
+
+    /**
+     * 4xx 응답 한 건을 기록하고, 예산을 넘겼으면 차단 테이블에 넣는다.
+     */
+    public void recordClientError(String client) {
+        long now = System.currentTimeMillis();
+        long window = advance(now);
+        long current = sketches[(int) (window & 1)].increment(client);
+        long previous = sketches[(int) ((window - 1) & 1)].estimate(client);
+        double previousWeight = 1.0 - (double) (now % windowMillis) / windowMillis;
+
+        if (current + previous * previousWeight > budget) {
+            block(client, now);
+        }
+    }
+
+    private void block(String client, long now) {
+        if (blockedUntil.size() >= maxBlocked) {
+            sweep(now);
+            if (blockedUntil.size() >= maxBlocked) {
+                return; // 테이블이 가득 차면 새로 차단하지 않는다. (메모리 상한 우선)
+            }
+        }
+        if (blockedUntil.put(client, now + windowMillis) == null) {
+            log.info("error budget exceeded client={}", client);
+        }
+    }
+
+    /**
+     * 만료된 차단 항목을 정리한다. 테이블 전체를 도는 작업이라 sweep 간격에 한 번, CAS 에 성공한 스레드만 한다.
+     * 나머지 스레드는 기다리지 않고 바로 돌아간다. (오류가 몰릴 때 오류 한 건마다 테이블 전체를 돌지 않도록)
+     */
+    private void sweep(long now) {
+        long next = nextSweep.get();
+        if (now < next || !nextSweep.compareAndSet(next, now + sweepIntervalMillis)) {
+            return;
+        }
+        blockedUntil.values().removeIf(value -> value <= now);
+    }
+
+    /**
+     * window 가 바뀌었으면 두 window 전의 sketch 를 비워서 새 window 용으로 쓴다.
+     * CAS 에 성공한 한 스레드만 비우고, 그 사이 다른 스레드의 증가 몇 건이 같이 지워질 수 있다. (근사치 허용)
+     */
+    private long advance(long now) {
+        long window = now / windowMillis;
+        long seen = currentWindow.get();
+        while (window > seen) {
+            if (currentWindow.compareAndSet(seen, window)) {
+                sketches[(int) (window & 1)].clear();
+                if (window - seen > 1) {
+                    sketches[(int) ((window - 1) & 1)].clear(); // 한 window 이상 조용했다.
+                }
+                return window;
+            }
+            seen = currentWindow.get();
+        }
+        return seen;
+    }
+
+    public int blockedCount() {
+        return blockedUntil.size();
+    }
+}
@@ -0,0 +1,133 @@
+package hello.exception.coalesce;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * leader 의 응답을 그대로 클라이언트에 쓰면서, 바디를 maxBytes 까지 복사해두는 wrapper
+ *
+ * ContentCachingResponseWrapper 와 달리 응답을 붙잡아두지 않으므로 leader 쪽 동작(스트리밍, 비동기)은 바뀌지 않는다.
+ * sendError 가 호출되었거나 바디가 maxBytes 를 넘으면 공유할 수 없는 응답으로 표시한다.
+ */
+class CapturingResponseWrapper extends HttpServletResponseWrapper {
+
+    private final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+    private final int maxBytes;
+
+    private boolean errorSent;
+    private boolean overflow;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    CapturingResponseWrapper(HttpServletResponse response, int maxBytes) {
+        super(response);
+        this.maxBytes = maxBytes;
+    }
+
+    boolean isShareable() {
+        return !errorSent && !overflow;
+    }
+
+    byte[] getCapturedBody() {
+        return copy.toByteArray();
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        errorSent = true; // 바디는 이후 ERROR 디스패치에서 만들어지므로 여기서는 알 수 없다.
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        errorSent = true;
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new TeeOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        super.flushBuffer();
+    }
+
+    /**
+     * getWriter() 로 쓴 내용이 PrintWriter 버퍼에 남지 않도록 요청이 끝나면 호출한다.
+     */
+    void flushWriter() {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    private void capture(byte[] bytes, int off, int len) {
+        if (overflow) {
+            return;
+        }
+        if (copy.size() + len > maxBytes) {
+            overflow = true;
+            copy.reset();
+            return;
+        }
+        copy.write(bytes, off, len);
+    }
+
+    private class TeeOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        TeeOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            capture(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            capture(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package hello.exception.coalesce;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * leader 가 만든 응답(상태 코드, 헤더, 바디)의 스냅샷. 성공 응답과 ExControllerAdvice 가 만든 오류 응답 모두 담는다.
+ *
+ * Tomcat 은 Content-Type / Content-Length 를 응답이 커밋되기 전까지 getHeaderNames() 에 넣지 않는다.
+ * (KeepAliveErrorFilter 를 켜면 오류 응답의 커밋이 늦어지므로 스냅샷 시점에는 아직 커밋 전일 수 있다)
+ * 그래서 Content-Type 과 문자 인코딩은 getContentType() / getCharacterEncoding() 으로 따로 담는다.
+ */
+class CoalescedResponse {
+
+    // 바디 길이, 다른 클라이언트에게 넘기면 안 되는 쿠키, 커넥션 단위 헤더는 복사하지 않는다.
+    private static final Set<String> EXCLUDED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        EXCLUDED_HEADERS.addAll(Arrays.asList("Content-Type", "Content-Length", "Transfer-Encoding",
+                "Set-Cookie", "Connection", "Keep-Alive", "Date"));
+    }
+
+    private final int status;
+    private final String contentType;
+    private final String characterEncoding;
+    private final Map<String, List<String>> headers;
+    private final byte[] body;
+
+    CoalescedResponse(HttpServletResponse response, byte[] body) {
+        this.status = response.getStatus();
+        this.contentType = response.getContentType();
+        this.characterEncoding = response.getCharacterEncoding();
+        this.headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            if (EXCLUDED_HEADERS.contains(name)) {
+                continue;
+            }
+            Collection<String> values = response.getHeaders(name);
+            headers.put(name, new ArrayList<>(values));
+        }
+        this.body = body;
+    }
+
+    int getStatus() {
+        return status;
+    }
+
+    void writeTo(HttpServletResponse response) throws IOException {
+        response.setStatus(status);
+        response.setCharacterEncoding(characterEncoding);
+        if (contentType != null) {
+            response.setContentType(contentType);
+        }
+        headers.forEach((name, values) -> {
+            for (String value : values) {
+                response.addHeader(name, value);
+            }
+        });
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
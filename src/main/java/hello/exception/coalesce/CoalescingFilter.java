@@ -0,0 +1,142 @@
+package hello.exception.coalesce;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 동일한 GET 요청 병합 (single-flight)
+ *
+ * 같은 요청(메서드 + URI + 쿼리 + key-headers)이 동시에 들어오면 첫 요청(leader)만 실제로 실행하고,
+ * 나머지(follower)는 leader 의 응답을 그대로 받아간다.
+ * 성공 응답뿐 아니라 ExControllerAdvice 가 만든 오류 응답(상태 코드 + ErrorResult)도 공유하므로
+ * 장애 상황에서 같은 예외를 요청 수만큼 던지고, 처리하고, 로그를 남기지 않는다.
+ *
+ * - Cookie 가 있는 요청은 세션마다 응답이 다를 수 있으므로 병합하지 않고 직접 실행한다. (bypassed)
+ * - follower 는 최대 maxWaitMillis 까지만 기다리고, 넘으면 직접 실행한다.
+ * - sendError 로 끝났거나(바디는 ERROR 디스패치에서 만들어짐), 비동기 처리가 시작되었거나,
+ *   바디가 maxBodyBytes 를 넘으면 공유하지 않고 follower 도 직접 실행한다.
+ *
+ * 멱등한 핸들러에만 적용해야 하므로 WebConfig 에서 URL 패턴으로 명시적으로 켠다. (coalescing.enabled=true)
+ */
+@Slf4j
+public class CoalescingFilter implements Filter {
+
+    private final Map<String, CompletableFuture<CoalescedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final List<String> keyHeaders;
+    private final long maxWaitMillis;
+    private final int maxBodyBytes;
+    private final CoalescingMetrics metrics;
+
+    public CoalescingFilter(List<String> keyHeaders, long maxWaitMillis, int maxBodyBytes, CoalescingMetrics metrics) {
+        this.keyHeaders = keyHeaders;
+        this.maxWaitMillis = maxWaitMillis;
+        this.maxBodyBytes = maxBodyBytes;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        if (!"GET".equals(httpRequest.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (httpRequest.getHeader("Cookie") != null) {
+            metrics.bypassed.increment();
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String key = key(httpRequest);
+        CompletableFuture<CoalescedResponse> mine = new CompletableFuture<>();
+        CompletableFuture<CoalescedResponse> leader = inFlight.putIfAbsent(key, mine);
+
+        if (leader != null) {
+            follow(leader, httpRequest, httpResponse, chain);
+            return;
+        }
+
+        metrics.leaders.increment();
+        CapturingResponseWrapper wrapper = new CapturingResponseWrapper(httpResponse, maxBodyBytes);
+        try {
+            chain.doFilter(request, wrapper);
+            wrapper.flushWriter();
+            if (request.isAsyncStarted() || !wrapper.isShareable()) {
+                mine.complete(null);
+            } else {
+                mine.complete(new CoalescedResponse(httpResponse, wrapper.getCapturedBody()));
+            }
+        } catch (IOException | ServletException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+            if (!mine.isDone()) {
+                mine.complete(null); // Error 등으로 빠져나간 경우에도 follower 를 깨운다.
+            }
+        }
+    }
+
+    private void follow(CompletableFuture<CoalescedResponse> leader, HttpServletRequest request,
+                        HttpServletResponse response, FilterChain chain) throws IOException, ServletException {
+        CoalescedResponse shared;
+        try {
+            shared = leader.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            metrics.timeouts.increment();
+            chain.doFilter(request, response);
+            return;
+        } catch (ExecutionException e) {
+            // leader 가 처리되지 않은 예외로 끝났다. 직접 실행해서 WAS 의 오류 처리 흐름을 그대로 따른다.
+            metrics.bypassed.increment();
+            chain.doFilter(request, response);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (shared == null) {
+            metrics.bypassed.increment();
+            chain.doFilter(request, response);
+            return;
+        }
+
+        metrics.followers.increment();
+        if (shared.getStatus() >= 400) {
+            metrics.followerErrors.increment();
+        }
+        shared.writeTo(response);
+    }
+
+    private String key(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(64)
+                .append(request.getMethod()).append(' ')
+                .append(request.getRequestURI());
+        if (request.getQueryString() != null) {
+            key.append('?').append(request.getQueryString());
+        }
+        for (String header : keyHeaders) {
+            key.append('\n').append(header).append('=').append(request.getHeader(header));
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,39 @@
+package hello.exception.coalesce;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+/**
+ * 요청 병합 지표
+ *
+ * - leaders   : 실제로 실행된 요청
+ * - followers : 실행 중인 같은 요청의 결과를 받아간 요청
+ * - timeouts  : 기다리다가 max-wait 을 넘겨서 직접 실행한 요청
+ * - bypassed  : 결과를 공유할 수 없어서(Cookie, sendError, 비동기 처리 등) 직접 실행한 요청
+ * coalescingRatio = followers / (leaders + followers)
+ */
+@Component
+public class CoalescingMetrics {
+
+    final LongAdder leaders = new LongAdder();
+    final LongAdder followers = new LongAdder();
+    final LongAdder followerErrors = new LongAdder();
+    final LongAdder timeouts = new LongAdder();
+    final LongAdder bypassed = new LongAdder();
+
+    public Map<String, Object> snapshot() {
+        long leaderCount = leaders.sum();
+        long followerCount = followers.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("leaders", leaderCount);
+        result.put("followers", followerCount);
+        result.put("followerErrors", followerErrors.sum());
+        result.put("timeouts", timeouts.sum());
+        result.put("bypassed", bypassed.sum());
+        result.put("coalescingRatio",
+                leaderCount + followerCount == 0 ? 0.0 : (double) followerCount / (leaderCount + followerCount));
+        return result;
+    }
+}
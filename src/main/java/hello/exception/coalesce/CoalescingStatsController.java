@@ -0,0 +1,23 @@
+package hello.exception.coalesce;
+
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 요청 병합 지표 조회
+ *
+ * http://localhost:8080/stats/coalescing
+ */
+@RestController
+@RequiredArgsConstructor
+public class CoalescingStatsController {
+
+    private final CoalescingMetrics coalescingMetrics;
+
+    @GetMapping("/stats/coalescing")
+    public Map<String, Object> coalescingStats() {
+        return coalescingMetrics.snapshot();
+    }
+}
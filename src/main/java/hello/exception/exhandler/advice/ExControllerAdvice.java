@@ -2,6 +2,11 @@ package hello.exception.exhandler.advice;
 
 import hello.exception.exception.UserException;
 import hello.exception.exhandler.ErrorResult;
+import hello.exception.journal.ErrorJournal;
+import hello.exception.logging.RequestLogBuffer;
+import hello.exception.stats.ErrorCounters;
+import javax.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +25,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
  */
 
 @Slf4j
+@RequiredArgsConstructor
 @RestControllerAdvice(basePackages = "hello.exception.api") // 특정 패키지에만 적용할 수도 있다.
 /*
 특정 애노테이션이 있는 컨트롤러를 지정할 수 있고, 특정 패키지를 직접 지정할 수도 있다.
@@ -28,6 +34,10 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
  */
 
 public class ExControllerAdvice {
+
+    private final ErrorCounters errorCounters;
+    private final ErrorJournal errorJournal;
+
     /**
      * @ExceptionHandler
      * 스프링은 API 예외 처리 문제를 해결하기 위해 @ExceptionHandler 라는
@@ -57,8 +67,11 @@ public class ExControllerAdvice {
     @ResponseStatus(HttpStatus.BAD_REQUEST) // 이렇게 상태코드를 변경할 수도 있다.
     @ExceptionHandler(IllegalArgumentException.class)
     // IllegalArgumentException 또는 그 하위 자식 클래스를 모두 처리할 수 있다.
-    public ErrorResult illegalExHandler(IllegalArgumentException e) {
+    public ErrorResult illegalExHandler(IllegalArgumentException e, HttpServletRequest request) {
+        RequestLogBuffer.flush();
         log.error("[exceptionHandler] ex", e);
+        errorCounters.record(e, HttpStatus.BAD_REQUEST.value());
+        errorJournal.append(request, HttpStatus.BAD_REQUEST.value(), e);
         return new ErrorResult("BAD", e.getMessage());
     }
 
@@ -67,16 +80,22 @@ public class ExControllerAdvice {
         @ExceptionHandler 에 예외를 생략할 수 있다. 생략하면 메서드 파라미터의 예외가 지정된다.
      */
     @ExceptionHandler
-    public ResponseEntity<ErrorResult> userExHandler(UserException e) {
+    public ResponseEntity<ErrorResult> userExHandler(UserException e, HttpServletRequest request) {
+        RequestLogBuffer.flush();
         log.error("[exceptionHandler] ex", e);
+        errorCounters.record(e, HttpStatus.BAD_REQUEST.value());
+        errorJournal.append(request, HttpStatus.BAD_REQUEST.value(), e);
         ErrorResult errorResult = new ErrorResult("USER-EX", e.getMessage());
         return new ResponseEntity<>(errorResult, HttpStatus.BAD_REQUEST);
     }
 
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     @ExceptionHandler
-    public ErrorResult exHandler(Exception e) {
+    public ErrorResult exHandler(Exception e, HttpServletRequest request) {
+        RequestLogBuffer.flush();
         log.error("[exceptionHandler] ex", e);
+        errorCounters.record(e, HttpStatus.INTERNAL_SERVER_ERROR.value());
+        errorJournal.append(request, HttpStatus.INTERNAL_SERVER_ERROR.value(), e);
         return new ErrorResult("EX", "내부 오류");
     }
 }
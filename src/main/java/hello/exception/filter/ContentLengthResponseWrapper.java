@@ -0,0 +1,192 @@
+package hello.exception.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * 오류 응답(상태 코드 4xx/5xx) 바디를 bufferSize 까지 모아두었다가 Content-Length 를 붙여서 한 번에 쓰는 wrapper
+ *
+ * 메시지 컨버터는 바디를 쓰고 나서 flush() 를 호출하는데, 이때 응답이 커밋되면 Tomcat 은 길이를 모르므로 chunked 로 보낸다.
+ * 작은 오류 응답은 flush 를 미뤄서 끝날 때 정확한 Content-Length 로 보낸다.
+ * 정상 응답(4xx/5xx 가 아닌 상태에서 처음 쓰거나 flush 한 응답)은 모으지 않고, 핸들러의 flush 도 그대로 통과시킨다.
+ * bufferSize 를 넘거나 비동기 처리로 넘어가면(release) 모아둔 바디를 내보내고 그 뒤로는 그대로 통과시킨다. (스트리밍 유지)
+ *
+ * 비동기 처리에서는 다른 스레드가 쓸 수 있으므로 스트림 메서드는 synchronized 로 보호한다.
+ */
+class ContentLengthResponseWrapper extends HttpServletResponseWrapper {
+
+    private final int bufferSize;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    private boolean passThrough;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    ContentLengthResponseWrapper(HttpServletResponse response, int bufferSize) {
+        super(response);
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new BufferingOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public synchronized void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (!holding()) {
+            super.flushBuffer();
+        }
+        // 오류 바디를 모으는 중에는 커밋하지 않는다. complete() 에서 Content-Length 와 함께 보낸다.
+    }
+
+    @Override
+    public synchronized void sendError(int sc) throws IOException {
+        buffer.reset(); // sendError 는 지금까지 쓴 바디를 버린다.
+        super.sendError(sc);
+    }
+
+    @Override
+    public synchronized void sendError(int sc, String msg) throws IOException {
+        buffer.reset();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public synchronized void resetBuffer() {
+        buffer.reset();
+        super.resetBuffer();
+    }
+
+    @Override
+    public synchronized void reset() {
+        buffer.reset();
+        super.reset();
+    }
+
+    /**
+     * 지금 바디를 모아야 하는지. 오류 상태가 아니면 모아둔 것을 내보내고 이후로는 그대로 통과시킨다.
+     */
+    private boolean holding() throws IOException {
+        if (passThrough) {
+            return false;
+        }
+        if (getStatus() < 400) {
+            writeBuffered();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 요청 처리가 끝났을 때 호출한다. 모아둔 바디를 정확한 Content-Length 와 함께 내보낸다.
+     */
+    synchronized void complete() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (passThrough) {
+            return;
+        }
+        passThrough = true;
+        if (buffer.size() > 0 && !isCommitted()) {
+            super.setContentLength(buffer.size());
+        }
+        if (buffer.size() > 0) {
+            buffer.writeTo(super.getOutputStream());
+            buffer.reset();
+        }
+    }
+
+    /**
+     * 비동기 처리로 넘어갈 때 호출한다. 모아둔 바디를 내보내고 이후로는 그대로 통과시킨다.
+     */
+    synchronized void release() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (passThrough) {
+            return;
+        }
+        writeBuffered();
+    }
+
+    /**
+     * 모아둔 바디를 내보내고 통과 모드로 바꾼다.
+     * writer 를 flush 하는 도중(스트림 write 안)에서도 불리므로 여기서는 writer 를 건드리지 않는다.
+     */
+    private void writeBuffered() throws IOException {
+        passThrough = true;
+        if (buffer.size() > 0) {
+            buffer.writeTo(super.getOutputStream());
+            buffer.reset();
+        }
+    }
+
+    private class BufferingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        BufferingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            synchronized (ContentLengthResponseWrapper.this) {
+                if (holding() && buffer.size() + len > bufferSize) {
+                    writeBuffered(); // 큰 응답은 그대로 흘려보낸다. (chunked)
+                }
+                if (passThrough) {
+                    delegate.write(b, off, len);
+                } else {
+                    buffer.write(b, off, len);
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (ContentLengthResponseWrapper.this) {
+                if (!holding()) {
+                    delegate.flush();
+                }
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package hello.exception.filter;
+
+import hello.exception.budget.ErrorBudget;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 4xx 오류 예산을 넘긴 클라이언트를 LogFilter 앞에서 429 로 돌려보낸다.
+ *
+ * 차단된 요청은 로그, 인터셉터, 예외 처리를 전혀 거치지 않고 미리 만들어둔 바디만 쓴다.
+ * 그 외 요청은 그대로 통과시키고, 응답이 4xx 이면 ErrorBudget 에 기록한다.
+ *
+ * 클라이언트는 접속 주소로 구분한다.
+ * X-API-Key 같은 헤더는 클라이언트가 마음대로 정할 수 있으므로 쓰지 않는다. (요청마다 키를 바꾸면 차단을 피할 수 있다.)
+ * API 키로 구분하려면 키를 검증한 다음이어야 하는데, 이 필터는 인증보다 앞에서 실행된다.
+ */
+public class ErrorBudgetFilter implements Filter {
+
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+    private static final byte[] TOO_MANY_ERRORS_BODY =
+            "{\"code\":\"TOO-MANY-ERRORS\",\"message\":\"오류 요청이 너무 많습니다\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final ErrorBudget errorBudget;
+
+    public ErrorBudgetFilter(ErrorBudget errorBudget) {
+        this.errorBudget = errorBudget;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        String client = clientKey(httpRequest);
+
+        long blockedFor = errorBudget.blockedFor(client);
+        if (blockedFor > 0) {
+            httpResponse.setStatus(SC_TOO_MANY_REQUESTS);
+            httpResponse.setHeader("Retry-After", String.valueOf((blockedFor + 999) / 1000));
+            httpResponse.setContentType("application/json;charset=UTF-8");
+            httpResponse.setContentLength(TOO_MANY_ERRORS_BODY.length);
+            httpResponse.getOutputStream().write(TOO_MANY_ERRORS_BODY);
+            return;
+        }
+
+        chain.doFilter(request, response);
+
+        // sendError 로 끝난 경우도 여기서는 이미 상태 코드가 정해져 있다.
+        int status = httpResponse.getStatus();
+        if (status >= 400 && status < 500) {
+            errorBudget.recordClientError(client);
+        }
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,35 @@
+package hello.exception.filter;
+
+import hello.exception.jfr.ErrorDispatchEvent;
+import java.io.IOException;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * WAS 의 오류 페이지 요청(DispatcherType.ERROR) 시작 ~ 종료를 ErrorDispatch JFR 이벤트로 남긴다.
+ *
+ * LogFilter 는 기본으로 등록되지 않고, LogInterceptor 는 /error 를 제외하므로 둘 다 ERROR 요청을 보지 못한다.
+ * 그래서 ERROR 에만 걸리는 전용 필터를 따로 둔다. (WebConfig 에서 DispatcherType.ERROR 만 지정)
+ */
+public class ErrorDispatchFilter implements Filter {
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        ErrorDispatchEvent event = ErrorDispatchEvent.start(
+                String.valueOf(request.getAttribute(RequestDispatcher.ERROR_REQUEST_URI)), httpRequest.getRequestURI());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            event.finish(((HttpServletResponse) response).getStatus());
+        }
+    }
+}
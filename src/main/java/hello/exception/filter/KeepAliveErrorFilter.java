@@ -0,0 +1,55 @@
+package hello.exception.filter;
+
+import java.io.IOException;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 오류 응답 뒤에도 커넥션을 재사용할 수 있도록 오류 바디에 Content-Length 를 붙이는 필터
+ *
+ * 작은 오류 응답(4xx/5xx 바디)은 ContentLengthResponseWrapper 로 모아서 Content-Length 와 함께 보낸다.
+ * ERROR 디스패치(/error, /error-page/**)의 오류 화면도 마찬가지다.
+ * 정상 응답은 모으지 않고 그대로 통과시킨다. (핸들러의 flushBuffer() 도 그대로 커밋된다)
+ *
+ * 읽지 않은 요청 바디는 직접 비우지 않는다. Tomcat 이 응답을 보낸 뒤 server.tomcat.max-swallow-size(기본 2MB)까지
+ * 읽어서 버리고, 넘으면 커넥션을 닫는다. 응답 전에 필터에서 읽으면 클라이언트가 그만큼 응답을 기다리고,
+ * Expect: 100-continue 요청에는 불필요한 100 Continue 를 보내게 된다.
+ *
+ * Connection: close 는 직접 붙이지 않는다. WAS 가 정말 필요할 때만 붙이도록 둔다.
+ *
+ * 한계 (그래서 기본은 꺼져있다, keep-alive-errors.enabled=true 로 켠다)
+ *  - Tomcat(Http11Processor)은 상태 코드가 400, 408, 411, 413, 414, 500, 501, 503 이면 바디 길이와 상관없이
+ *    Connection: close 를 붙이고 커넥션을 닫는다. 커넥터 단계의 동작이라 필터로는 바꿀 수 없다.
+ *    ExControllerAdvice 의 400/500 응답도 여기에 해당하므로, 필터가 도움이 되는 것은 404, 409, 429 같은 나머지 상태뿐이다.
+ *  - chunked 응답도 마지막 청크로 끝이 표시되므로 그것만으로는 클라이언트가 다시 연결하지 않는다.
+ *    Content-Length 로 바뀌는 것은 응답 형태(마지막 청크 대신 길이 헤더)뿐이다.
+ * 켜기 전에 ConnectionChurnBenchmark 로 꺼짐/켜짐의 새 커넥션 수를 비교한다.
+ */
+public class KeepAliveErrorFilter implements Filter {
+
+    private final int bufferSize;
+
+    public KeepAliveErrorFilter(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        ContentLengthResponseWrapper wrapper =
+                new ContentLengthResponseWrapper((HttpServletResponse) response, bufferSize);
+
+        chain.doFilter(request, wrapper);
+
+        if (request.isAsyncStarted()) {
+            wrapper.release(); // 나머지는 비동기 스레드가 그대로 쓴다.
+            return;
+        }
+        wrapper.complete();
+    }
+}
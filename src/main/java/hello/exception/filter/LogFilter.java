@@ -1,5 +1,6 @@
 package hello.exception.filter;
 
+import hello.exception.jfr.ExceptionThrownEvent;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.servlet.*;
@@ -29,6 +30,7 @@ public class LogFilter implements Filter {
             log.info("REQUEST  [{}][{}][{}]", uuid, request.getDispatcherType(), requestURI);
             chain.doFilter(request, response);
         } catch (Exception e) {
+            ExceptionThrownEvent.emit(e, requestURI, "LogFilter");
             throw e;
         } finally {
             log.info("RESPONSE [{}][{}][{}]", uuid, request.getDispatcherType(), requestURI);
@@ -1,7 +1,9 @@
 package hello.exception.interceptor;
 
+import hello.exception.jfr.ExceptionThrownEvent;
+import hello.exception.logging.RequestLogBuffer;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
 import org.springframework.web.servlet.ModelAndView;
 
 import javax.servlet.http.HttpServletRequest;
@@ -9,15 +11,20 @@ import javax.servlet.http.HttpServletResponse;
 import java.util.UUID;
 
 @Slf4j
-public class LogInterceptor implements HandlerInterceptor {
+public class LogInterceptor implements AsyncHandlerInterceptor {
 
     public static final String LOG_ID = "logId";
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         String requestURI = request.getRequestURI();
-        String uuid = UUID.randomUUID().toString();
-        request.setAttribute(LOG_ID, uuid);
+        // ASYNC / ERROR 디스패치는 같은 요청이므로 처음 디스패치에서 만든 logId 를 그대로 쓴다.
+        String uuid = (String) request.getAttribute(LOG_ID);
+        if (uuid == null) {
+            uuid = UUID.randomUUID().toString();
+            request.setAttribute(LOG_ID, uuid);
+        }
+        RequestLogBuffer.begin(uuid); // 이 요청의 DEBUG 로그는 오류가 날 때만 출력된다.
         log.info("REQUEST  [{}][{}][{}][{}]", uuid, request.getDispatcherType(), requestURI, handler);
         return true;
     }
@@ -38,7 +45,17 @@ public class LogInterceptor implements HandlerInterceptor {
         log.info("RESPONSE [{}][{}][{}]", logId, request.getDispatcherType(),
                 requestURI);
         if (ex != null) {
+            ExceptionThrownEvent.emit(ex, requestURI, "LogInterceptor");
+            RequestLogBuffer.flush();
             log.error("afterCompletion error!!", ex);
         }
+        RequestLogBuffer.discard();
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) throws Exception {
+        // 비동기 처리로 넘어가면 이 스레드는 다른 요청을 처리하러 가므로 버퍼를 정리한다.
+        RequestLogBuffer.discard();
     }
 }
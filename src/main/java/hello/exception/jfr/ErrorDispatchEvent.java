@@ -0,0 +1,44 @@
+package hello.exception.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * WAS 의 오류 페이지 요청 (DispatcherType.ERROR) 시작 ~ 종료, ErrorDispatchFilter 가 남긴다.
+ */
+@Name("hello.exception.ErrorDispatch")
+@Label("Error Dispatch")
+@Category({"Hello Exception", "Error Pipeline"})
+@Description("ERROR dispatch from start to finish, recorded by ErrorDispatchFilter")
+@StackTrace(false)
+public class ErrorDispatchEvent extends Event {
+
+    @Label("Request URI")
+    String uri;
+
+    @Label("Error Path")
+    String errorPath;
+
+    @Label("Status")
+    int status;
+
+    public static ErrorDispatchEvent start(String uri, String errorPath) {
+        ErrorDispatchEvent event = new ErrorDispatchEvent();
+        event.uri = uri;
+        event.errorPath = errorPath;
+        event.begin();
+        return event;
+    }
+
+    public void finish(int status) {
+        end();
+        if (shouldCommit()) {
+            this.status = status;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package hello.exception.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 오류 화면(또는 오류 API 응답)을 만든 것
+ * 기본 설정에서는 InstrumentedErrorController(/error), WebServerCustomizer 를 등록하면 ErrorPageController(/error-page/**) 가 남긴다.
+ */
+@Name("hello.exception.ErrorViewRendered")
+@Label("Error View Rendered")
+@Category({"Hello Exception", "Error Pipeline"})
+@Description("Error view or error API response produced by the /error or /error-page controller")
+@StackTrace(false)
+public class ErrorViewRenderedEvent extends Event {
+
+    @Label("View")
+    String view;
+
+    @Label("Status")
+    int status;
+
+    @Label("Request URI")
+    String uri;
+
+    public static void emit(String view, Object status, Object uri) {
+        ErrorViewRenderedEvent event = new ErrorViewRenderedEvent();
+        if (event.isEnabled()) {
+            event.view = view;
+            event.status = status instanceof Integer ? (Integer) status : 0;
+            event.uri = String.valueOf(uri);
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package hello.exception.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * 예외 처리(해결) 한 건. 지속 시간 = 예외가 ExceptionResolver 체인에 들어와서 처리가 끝날 때까지 걸린 시간
+ * (TimedHandlerExceptionResolver 가 남긴다. resolver 는 처리한 ExceptionResolver 의 클래스 이름,
+ *  @ExceptionHandler(ExControllerAdvice) 는 ExceptionHandlerExceptionResolver)
+ *
+ * threshold 보다 오래 걸린 처리만 기록된다. (.jfc 에서 조정)
+ */
+@Name("hello.exception.ExceptionResolved")
+@Label("Exception Resolved")
+@Category({"Hello Exception", "Error Pipeline"})
+@Description("Time from entering the HandlerExceptionResolver chain until a resolver handled the exception")
+@Threshold("5 ms")
+@StackTrace(false)
+public class ExceptionResolvedEvent extends Event {
+
+    @Label("Exception Type")
+    String exceptionType;
+
+    @Label("Handler")
+    String handler;
+
+    @Label("Resolver")
+    String resolver;
+
+    @Label("Status")
+    int status;
+
+    public static ExceptionResolvedEvent start() {
+        ExceptionResolvedEvent event = new ExceptionResolvedEvent();
+        event.begin();
+        return event;
+    }
+
+    public void resolved(Exception ex, Object handler, String resolver, int status) {
+        end();
+        if (shouldCommit()) { // threshold 를 넘지 않으면 필드도 채우지 않는다.
+            this.exceptionType = ex.getClass().getName();
+            this.handler = String.valueOf(handler);
+            this.resolver = resolver;
+            this.status = status;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package hello.exception.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 처리되지 않고 인터셉터 / 필터 밖으로 빠져나간 예외
+ *
+ * ExceptionResolver(ExControllerAdvice, MyHandlerExceptionResolver 등)가 처리한 예외는 afterCompletion 에 전달되지 않으므로
+ * 여기에 남지 않는다. 그런 예외는 ExceptionResolved 이벤트로 본다. (/error-ex 처럼 WAS 까지 전파되는 예외만 해당)
+ */
+@Name("hello.exception.ExceptionThrown")
+@Label("Exception Thrown")
+@Category({"Hello Exception", "Error Pipeline"})
+@Description("Unresolved exception propagated out of LogInterceptor or LogFilter (resolved ones are ExceptionResolved)")
+@StackTrace(false)
+public class ExceptionThrownEvent extends Event {
+
+    @Label("Exception Type")
+    String exceptionType;
+
+    @Label("Message")
+    String message;
+
+    @Label("Request URI")
+    String uri;
+
+    @Label("Source")
+    String source;
+
+    public static void emit(Throwable ex, String uri, String source) {
+        ExceptionThrownEvent event = new ExceptionThrownEvent();
+        if (event.isEnabled()) {
+            event.exceptionType = ex.getClass().getName();
+            event.message = ex.getMessage();
+            event.uri = uri;
+            event.source = source;
+            event.commit();
+        }
+    }
+}
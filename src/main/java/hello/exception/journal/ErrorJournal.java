@@ -0,0 +1,310 @@
+package hello.exception.journal;
+
+import hello.exception.interceptor.LogInterceptor;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * 메모리 매핑 기반 append-only 오류 저널
+ *
+ * 예외 처리 경로(ExControllerAdvice, ExceptionResolver)에서 처리한 오류를 고정 크기 레코드로 세그먼트 파일에 남긴다.
+ * 노드가 재시작돼도 세그먼트를 다시 열어서 replay / query 할 수 있다.
+ *
+ * - 요청 스레드는 매핑된 메모리에 쓰기만 한다. fsync(force) 는 별도 스레드가 주기적으로 한다.
+ * - 세그먼트가 가득 차면 새 세그먼트로 넘어가고(rolling), max-segments 를 넘는 오래된 세그먼트는 삭제한다.
+ *   다음 세그먼트 파일은 flusher 스레드가 미리 만들어 두고, 오래된 세그먼트 파일도 flusher 스레드가 지운다.
+ *   요청 스레드가 락을 잡은 채로 파일을 만들거나 지우지 않도록.
+ * - 조회는 희소 시간 인덱스로 시작 위치를 찾고, 조건에 맞는 레코드만 객체로 만든다.
+ *
+ * error-journal.enabled=true
+ * error-journal.dir=./error-journal
+ * 조회: http://localhost:8080/journal/errors?from=0&to=9999999999999&status=400&limit=100
+ */
+@Slf4j
+@Component
+public class ErrorJournal {
+
+    private static final String RECORD_SUFFIX = ".rec";
+
+    private final boolean enabled;
+    private final Path dir;
+    private final int segmentRecords;
+    private final int segmentMessageBytes;
+    private final int maxSegments;
+    private final long forceIntervalMillis;
+
+    private final Object writeLock = new Object();
+    private final Object prepareLock = new Object(); // 잠금 순서 : writeLock -> prepareLock
+    private final List<ErrorJournalSegment> segments = new CopyOnWriteArrayList<>();
+    private final Queue<ErrorJournalSegment> rolled = new ConcurrentLinkedQueue<>();
+    private final Queue<ErrorJournalSegment> retired = new ConcurrentLinkedQueue<>(); // 지울 세그먼트
+
+    private ErrorJournalDictionary types;
+    private ErrorJournalDictionary uris;
+    private volatile ErrorJournalSegment active;
+    private ErrorJournalSegment standby; // 미리 만들어 둔 다음 세그먼트 (prepareLock)
+    private long lastTimestamp;
+    private ScheduledExecutorService flusher;
+
+    public ErrorJournal(@Value("${error-journal.enabled:false}") boolean enabled,
+                        @Value("${error-journal.dir:./error-journal}") String dir,
+                        @Value("${error-journal.segment-records:65536}") int segmentRecords,
+                        @Value("${error-journal.segment-message-bytes:4194304}") int segmentMessageBytes,
+                        @Value("${error-journal.max-segments:16}") int maxSegments,
+                        @Value("${error-journal.force-interval-ms:1000}") long forceIntervalMillis) {
+        this.enabled = enabled;
+        this.dir = Paths.get(dir);
+        this.segmentRecords = segmentRecords;
+        this.segmentMessageBytes = segmentMessageBytes;
+        this.maxSegments = maxSegments;
+        this.forceIntervalMillis = forceIntervalMillis;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(dir);
+        types = new ErrorJournalDictionary(dir.resolve("types.dict"), 10_000);
+        uris = new ErrorJournalDictionary(dir.resolve("uris.dict"), 10_000);
+
+        for (long id : existingSegmentIds()) {
+            segments.add(ErrorJournalSegment.open(id, dir, segmentRecords, segmentMessageBytes));
+        }
+        if (segments.isEmpty()) {
+            segments.add(ErrorJournalSegment.create(0, dir, segmentRecords, segmentMessageBytes));
+        }
+        active = segments.get(segments.size() - 1);
+        // 미리 만들어 두었던 빈 세그먼트가 마지막일 수 있으므로 전체에서 찾는다.
+        lastTimestamp = segments.stream().mapToLong(ErrorJournalSegment::lastTimestamp).max().orElse(Long.MIN_VALUE);
+
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "error-journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::force, forceIntervalMillis, forceIntervalMillis, TimeUnit.MILLISECONDS);
+        flusher.execute(this::prepareNext);
+        log.info("error journal opened dir={} segments={}", dir.toAbsolutePath(), segments.size());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS); // 세그먼트를 미리 만드는 중이면 끝날 때까지 기다린다.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        force();
+        deleteRetired();
+        types.close();
+        uris.close();
+    }
+
+    private List<Long> existingSegmentIds() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(RECORD_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - RECORD_SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    public void append(HttpServletRequest request, int status, Exception ex) {
+        append(System.currentTimeMillis(), request, status, ex);
+    }
+
+    void append(long now, HttpServletRequest request, int status, Exception ex) {
+        if (!enabled) {
+            return;
+        }
+        UUID logId = parseLogId(request.getAttribute(LogInterceptor.LOG_ID));
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        // URI 템플릿(/api/members/{id})이 있으면 그걸 쓴다. 실제 URI 는 종류가 너무 많다.
+        int uriId = uris.idOf(pattern != null ? pattern.toString() : request.getRequestURI());
+        int typeId = types.idOf(ex.getClass().getName());
+
+        synchronized (writeLock) {
+            try {
+                if (active.isFull()) {
+                    roll();
+                }
+                // 레코드는 시간순이어야 희소 인덱스로 찾을 수 있다.
+                long timestamp = Math.max(now, lastTimestamp);
+                lastTimestamp = timestamp;
+                active.append(timestamp, logId.getMostSignificantBits(), logId.getLeastSignificantBits(),
+                        status, typeId, uriId, ex.getMessage());
+            } catch (IOException e) {
+                log.warn("error journal append failed", e);
+            }
+        }
+    }
+
+    private static UUID parseLogId(Object logId) {
+        if (logId instanceof String) {
+            try {
+                return UUID.fromString((String) logId);
+            } catch (IllegalArgumentException ignored) {
+                // LOG_ID 가 UUID 형식이 아니면 비워둔다.
+            }
+        }
+        return new UUID(0, 0);
+    }
+
+    private void roll() throws IOException {
+        ErrorJournalSegment next = takeNext();
+        rolled.add(active);
+        segments.add(next);
+        active = next;
+        flusher.execute(this::prepareNext);
+
+        while (segments.size() > maxSegments) {
+            ErrorJournalSegment oldest = segments.remove(0);
+            rolled.remove(oldest);
+            retired.add(oldest);
+        }
+        if (!retired.isEmpty()) {
+            flusher.execute(this::deleteRetired);
+        }
+    }
+
+    /**
+     * flusher 스레드에서 retention 을 넘은 세그먼트 파일을 지운다. (조회 목록에서는 roll 에서 이미 빠졌다)
+     */
+    private void deleteRetired() {
+        ErrorJournalSegment segment;
+        while ((segment = retired.poll()) != null) {
+            try {
+                segment.delete();
+            } catch (IOException e) {
+                log.warn("error journal segment delete failed: {}", segment.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * writeLock 안에서 호출된다. 미리 만들어 둔 세그먼트가 없을 때만(오류가 몰려서 flusher 가 못 따라온 경우) 직접 만든다.
+     */
+    private ErrorJournalSegment takeNext() throws IOException {
+        synchronized (prepareLock) {
+            long nextId = active.getId() + 1;
+            ErrorJournalSegment next = standby;
+            standby = null;
+            if (next != null && next.getId() == nextId) {
+                return next;
+            }
+            log.debug("error journal standby segment not ready, creating {}", nextId);
+            return ErrorJournalSegment.create(nextId, dir, segmentRecords, segmentMessageBytes);
+        }
+    }
+
+    /**
+     * flusher 스레드에서 다음 세그먼트 파일을 만들고 매핑해 둔다.
+     */
+    private void prepareNext() {
+        synchronized (prepareLock) {
+            long nextId = active.getId() + 1;
+            if (standby != null && standby.getId() == nextId) {
+                return;
+            }
+            try {
+                standby = ErrorJournalSegment.create(nextId, dir, segmentRecords, segmentMessageBytes);
+            } catch (IOException e) {
+                log.warn("error journal segment prepare failed", e);
+            }
+        }
+    }
+
+    private void force() {
+        try {
+            // 레코드가 가리키는 사전 항목을 먼저 파일에 쓴다.
+            types.flush();
+            uris.flush();
+            ErrorJournalSegment segment;
+            while ((segment = rolled.poll()) != null) {
+                segment.force();
+            }
+            active.force();
+        } catch (Exception e) {
+            log.warn("error journal force failed", e);
+        }
+    }
+
+    /**
+     * from ~ to (epoch millis, 양 끝 포함) 사이의 레코드를 시간순으로 consumer 에 넘긴다.
+     * status 가 null 이 아니면 해당 상태 코드만, limit 개까지.
+     */
+    public void replay(long from, long to, Integer status, int limit, Consumer<ErrorJournalEntry> consumer) {
+        if (!enabled) {
+            return;
+        }
+        int remaining = limit;
+        for (ErrorJournalSegment segment : segments) {
+            if (segment.lastTimestamp() < from || segment.firstTimestamp() > to) {
+                continue;
+            }
+            int count = segment.getCount();
+            for (int i = segment.seek(from); i < count && remaining > 0; i++) {
+                long timestamp = segment.timestampAt(i);
+                if (timestamp < from) {
+                    continue;
+                }
+                if (timestamp > to) {
+                    return;
+                }
+                if (status != null && segment.statusAt(i) != status) {
+                    continue;
+                }
+                consumer.accept(toEntry(segment, i, timestamp));
+                remaining--;
+            }
+            if (remaining == 0) {
+                return;
+            }
+        }
+    }
+
+    public List<ErrorJournalEntry> query(long from, long to, Integer status, int limit) {
+        List<ErrorJournalEntry> entries = new ArrayList<>();
+        replay(from, to, status, limit, entries::add);
+        return entries;
+    }
+
+    private ErrorJournalEntry toEntry(ErrorJournalSegment segment, int n, long timestamp) {
+        UUID logId = new UUID(segment.logIdMsbAt(n), segment.logIdLsbAt(n));
+        return new ErrorJournalEntry(
+                timestamp,
+                logId.getMostSignificantBits() == 0 && logId.getLeastSignificantBits() == 0 ? null : logId.toString(),
+                segment.statusAt(n),
+                types.valueOf(segment.typeIdAt(n)),
+                uris.valueOf(segment.uriIdAt(n)),
+                segment.messageAt(n));
+    }
+}
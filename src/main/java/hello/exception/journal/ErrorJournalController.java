@@ -0,0 +1,28 @@
+package hello.exception.journal;
+
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 오류 저널 조회
+ *
+ * http://localhost:8080/journal/errors?from=1700000000000&status=500&limit=50
+ */
+@RestController
+@RequiredArgsConstructor
+public class ErrorJournalController {
+
+    private final ErrorJournal errorJournal;
+
+    @GetMapping("/journal/errors")
+    public List<ErrorJournalEntry> errors(
+            @RequestParam(defaultValue = "0") long from,
+            @RequestParam(defaultValue = "" + Long.MAX_VALUE) long to,
+            @RequestParam(required = false) Integer status,
+            @RequestParam(defaultValue = "100") int limit) {
+        return errorJournal.query(from, to, status, limit);
+    }
+}
@@ -0,0 +1,106 @@
+package hello.exception.journal;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 문자열(예외 타입, URI) <-> 정수 id 사전
+ *
+ * 레코드에는 id 만 저장하고 문자열은 사전 파일에 한 줄씩 추가한다. (줄 번호 = id)
+ * 조회는 락 없이 하고, 새 문자열 추가는 드물기 때문에 synchronized 로 처리한다.
+ *
+ * 새 문자열은 메모리에만 등록하고, 파일에는 ErrorJournal 의 flusher 스레드가 flush() 로 id 순서대로 쓴다.
+ * (처음 보는 URI 가 몰려도 요청 스레드가 파일 I/O 를 하지 않도록)
+ * flush 전에 프로세스가 죽으면 그 사이 레코드의 타입 / URI 는 replay 에서 null 로 보인다.
+ */
+class ErrorJournalDictionary {
+
+    static final int OVERFLOW_ID = -1;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final List<String> values = new ArrayList<>();
+    private final int maxSize;
+    private final BufferedWriter writer;
+    private int written; // 파일에 쓴 항목 수 (writer 락)
+
+    ErrorJournalDictionary(Path file, int maxSize) throws IOException {
+        this.maxSize = maxSize;
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                ids.put(line, values.size());
+                values.add(line);
+            }
+        }
+        this.written = values.size();
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    int idOf(String value) {
+        if (value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            value = value.replace('\n', ' ').replace('\r', ' '); // 한 줄 = 한 항목
+        }
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        return register(value);
+    }
+
+    private synchronized int register(String value) {
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        if (values.size() >= maxSize) {
+            return OVERFLOW_ID;
+        }
+        int newId = values.size();
+        values.add(value);
+        ids.put(value, newId);
+        return newId;
+    }
+
+    synchronized String valueOf(int id) {
+        if (id < 0 || id >= values.size()) {
+            return null;
+        }
+        return values.get(id);
+    }
+
+    /**
+     * 아직 파일에 쓰지 않은 항목을 id 순서대로 쓴다. flusher 스레드와 close 에서 호출한다.
+     */
+    void flush() throws IOException {
+        synchronized (writer) {
+            List<String> pending;
+            synchronized (this) {
+                pending = new ArrayList<>(values.subList(written, values.size()));
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            for (String value : pending) {
+                writer.write(value);
+                writer.newLine();
+            }
+            writer.flush(); // fsync 는 하지 않는다. (OS 페이지 캐시까지만)
+            written += pending.size();
+        }
+    }
+
+    void close() throws IOException {
+        synchronized (writer) {
+            flush();
+            writer.close();
+        }
+    }
+}
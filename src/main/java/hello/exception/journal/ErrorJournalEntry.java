@@ -0,0 +1,17 @@
+package hello.exception.journal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ErrorJournalEntry {
+
+    private long timestamp;
+    private String logId;
+    private int status;
+    private String exceptionType;
+    private String uri;
+    private String message;
+
+}
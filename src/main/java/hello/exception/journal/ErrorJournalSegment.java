@@ -0,0 +1,249 @@
+package hello.exception.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 오류 저널 세그먼트 하나 (.rec + .msg 파일 한 쌍)
+ *
+ * .rec : [header 16][record 48]*  고정 크기 레코드, 메모리 매핑
+ *        header = [magic:4][recordCount:4][reserved:8]
+ *        record = [timestamp:8][logIdMsb:8][logIdLsb:8][status:2][pad:2][typeId:4][uriId:4][pad:4][messageOffset:8]
+ * .msg : [header 8][len:2][utf-8 bytes]*  메시지 영역, 메모리 매핑
+ *        header = [writePosition:8]
+ *
+ * 레코드가 고정 크기이므로 n 번째 레코드는 HEADER + n * RECORD_SIZE 위치에서 필요한 필드만 바로 읽을 수 있다.
+ * 희소 시간 인덱스는 INDEX_INTERVAL 번째 레코드마다 timestamp 를 메모리에 들고 있고, 세그먼트를 열 때 다시 만든다.
+ *
+ * 쓰기는 ErrorJournal 의 락 안에서만 하고, 읽기는 절대 위치(get(int)) 만 사용하므로 락 없이 할 수 있다.
+ */
+class ErrorJournalSegment {
+
+    static final int RECORD_SIZE = 48;
+    static final int INDEX_INTERVAL = 256;
+    static final long NO_MESSAGE = -1;
+
+    private static final int MAGIC = 0x454A524E; // "EJRN"
+    private static final int HEADER_SIZE = 16;
+    private static final int MSG_HEADER_SIZE = 8;
+    private static final int MAX_MESSAGE_BYTES = 1024;
+
+    private static final int TIMESTAMP = 0;
+    private static final int LOG_ID_MSB = 8;
+    private static final int LOG_ID_LSB = 16;
+    private static final int STATUS = 24;
+    private static final int TYPE_ID = 28;
+    private static final int URI_ID = 32;
+    private static final int MESSAGE_OFFSET = 40;
+
+    private final long id;
+    private final Path recordFile;
+    private final Path messageFile;
+    private final int capacity;
+    private final MappedByteBuffer records;
+    private final MappedByteBuffer messages;
+
+    private volatile int count;
+    private int messagePosition;
+    private long[] index;
+
+    private ErrorJournalSegment(long id, Path dir, int capacity, int messageCapacity) throws IOException {
+        this.id = id;
+        this.recordFile = dir.resolve(String.format("%010d.rec", id));
+        this.messageFile = dir.resolve(String.format("%010d.msg", id));
+        this.capacity = capacity;
+        this.records = map(recordFile, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+        this.messages = map(messageFile, messageCapacity);
+    }
+
+    static ErrorJournalSegment create(long id, Path dir, int capacity, int messageCapacity) throws IOException {
+        return new ErrorJournalSegment(id, dir, capacity, messageCapacity).init();
+    }
+
+    static ErrorJournalSegment open(long id, Path dir, int capacity, int messageCapacity) throws IOException {
+        ErrorJournalSegment segment = new ErrorJournalSegment(id, dir, capacity, messageCapacity);
+        if (segment.records.getInt(0) == 0 && segment.records.getInt(4) == 0) {
+            return segment.init(); // 미리 만들다가 헤더를 쓰기 전에 종료된 세그먼트
+        }
+        if (segment.records.getInt(0) != MAGIC) {
+            throw new IOException("corrupted segment " + segment.recordFile);
+        }
+        segment.count = Math.min(segment.records.getInt(4), capacity);
+        segment.messagePosition = (int) segment.messages.getLong(0);
+        segment.index = new long[Math.max(8, segment.count / INDEX_INTERVAL + 1)];
+        for (int i = 0; i < segment.count; i += INDEX_INTERVAL) {
+            segment.index[i / INDEX_INTERVAL] = segment.timestampAt(i);
+        }
+        return segment;
+    }
+
+    private ErrorJournalSegment init() {
+        records.putInt(0, MAGIC);
+        records.putInt(4, 0);
+        messages.putLong(0, MSG_HEADER_SIZE);
+        messagePosition = MSG_HEADER_SIZE;
+        index = new long[8];
+        return this;
+    }
+
+    private static MappedByteBuffer map(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    long getId() {
+        return id;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    boolean isFull() {
+        return count >= capacity || messages.capacity() - messagePosition < 2 + MAX_MESSAGE_BYTES;
+    }
+
+    /**
+     * ErrorJournal 의 락 안에서만 호출된다.
+     */
+    void append(long timestamp, long logIdMsb, long logIdLsb, int status, int typeId, int uriId, String message) {
+        int n = count;
+        int base = HEADER_SIZE + n * RECORD_SIZE;
+        records.putLong(base + TIMESTAMP, timestamp);
+        records.putLong(base + LOG_ID_MSB, logIdMsb);
+        records.putLong(base + LOG_ID_LSB, logIdLsb);
+        records.putShort(base + STATUS, (short) status);
+        records.putInt(base + TYPE_ID, typeId);
+        records.putInt(base + URI_ID, uriId);
+        records.putLong(base + MESSAGE_OFFSET, appendMessage(message));
+
+        if (n % INDEX_INTERVAL == 0) {
+            int slot = n / INDEX_INTERVAL;
+            if (slot == index.length) {
+                index = Arrays.copyOf(index, index.length * 2);
+            }
+            index[slot] = timestamp;
+        }
+
+        // 레코드를 다 쓴 다음에 개수를 올려야 읽는 쪽이 덜 쓴 레코드를 보지 않는다.
+        records.putInt(4, n + 1);
+        count = n + 1;
+    }
+
+    private long appendMessage(String message) {
+        if (message == null) {
+            return NO_MESSAGE;
+        }
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        int length = utf8Prefix(bytes, MAX_MESSAGE_BYTES);
+        int offset = messagePosition;
+        messages.putShort(offset, (short) length);
+        for (int i = 0; i < length; i++) {
+            messages.put(offset + 2 + i, bytes[i]);
+        }
+        messagePosition = offset + 2 + length;
+        messages.putLong(0, messagePosition);
+        return offset;
+    }
+
+    /**
+     * maxBytes 이하이면서 UTF-8 문자 중간에서 끊기지 않는 길이 (한글은 3 바이트)
+     */
+    static int utf8Prefix(byte[] bytes, int maxBytes) {
+        if (bytes.length <= maxBytes) {
+            return bytes.length;
+        }
+        int length = maxBytes;
+        while (length > 0 && (bytes[length] & 0xC0) == 0x80) { // 다음 바이트가 이어지는 바이트면 한 글자 앞에서 자른다.
+            length--;
+        }
+        return length;
+    }
+
+    long timestampAt(int n) {
+        return records.getLong(HEADER_SIZE + n * RECORD_SIZE + TIMESTAMP);
+    }
+
+    int statusAt(int n) {
+        return records.getShort(HEADER_SIZE + n * RECORD_SIZE + STATUS);
+    }
+
+    long logIdMsbAt(int n) {
+        return records.getLong(HEADER_SIZE + n * RECORD_SIZE + LOG_ID_MSB);
+    }
+
+    long logIdLsbAt(int n) {
+        return records.getLong(HEADER_SIZE + n * RECORD_SIZE + LOG_ID_LSB);
+    }
+
+    int typeIdAt(int n) {
+        return records.getInt(HEADER_SIZE + n * RECORD_SIZE + TYPE_ID);
+    }
+
+    int uriIdAt(int n) {
+        return records.getInt(HEADER_SIZE + n * RECORD_SIZE + URI_ID);
+    }
+
+    String messageAt(int n) {
+        long offset = records.getLong(HEADER_SIZE + n * RECORD_SIZE + MESSAGE_OFFSET);
+        if (offset == NO_MESSAGE) {
+            return null;
+        }
+        int length = messages.getShort((int) offset);
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = messages.get((int) offset + 2 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    long firstTimestamp() {
+        return count == 0 ? Long.MAX_VALUE : timestampAt(0);
+    }
+
+    long lastTimestamp() {
+        int n = count;
+        return n == 0 ? Long.MIN_VALUE : timestampAt(n - 1);
+    }
+
+    /**
+     * from 이상인 레코드가 있을 수 있는 첫 위치. 희소 인덱스에서 이진 탐색한 뒤 그 블록의 시작을 돌려준다.
+     */
+    int seek(long from) {
+        int n = count; // volatile 을 먼저 읽어야 그 이전에 쓴 인덱스가 보인다.
+        long[] snapshot = index;
+        int slots = (n + INDEX_INTERVAL - 1) / INDEX_INTERVAL;
+        int low = 0;
+        int high = Math.min(slots, snapshot.length) - 1;
+        int block = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (snapshot[mid] < from) {
+                block = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return block * INDEX_INTERVAL;
+    }
+
+    void force() {
+        records.force();
+        messages.force();
+    }
+
+    void delete() throws IOException {
+        // 매핑은 GC 때 해제된다. 리눅스에서는 매핑이 남아있어도 파일 삭제가 가능하다.
+        Files.deleteIfExists(recordFile);
+        Files.deleteIfExists(messageFile);
+    }
+}
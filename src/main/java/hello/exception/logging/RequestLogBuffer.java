@@ -0,0 +1,142 @@
+package hello.exception.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.LoggingEvent;
+
+/**
+ * 요청 단위 DEBUG/TRACE 로그 버퍼
+ *
+ * 운영에서는 INFO/WARN 으로 돌리기 때문에 DEBUG 로그는 출력되지 않는다.
+ * 요청이 처리되는 동안에는 꺼져있는 DEBUG/TRACE 로그를 포맷하지 않고 (logger, level, format, 인자) 만 스레드별 버퍼에 담아두고,
+ *  - 정상 종료 : LogInterceptor.afterCompletion 에서 버린다. (discard)
+ *  - 오류 발생 : ExControllerAdvice, ExceptionResolver, LogInterceptor.afterCompletion 에서 한 번에 출력한다. (flush)
+ *    flush 이후 같은 요청에서 나오는 DEBUG 로그는 버퍼를 거치지 않고 바로 출력한다.
+ *
+ * 인자는 참조만 담아두고 flush 할 때 포맷한다. 그래서 변경 가능한 객체를 인자로 넘기면 로그를 남긴 시점이 아니라
+ * flush 시점의 상태(toString())가 출력된다. 시점 값이 필요하면 호출하는 쪽에서 값이나 문자열로 넘긴다.
+ *
+ * 버퍼는 스레드마다 한 번만 만들고 계속 재사용한다. 가득 차면 가장 오래된 로그부터 덮어쓴다.
+ * 실제 수집은 RequestLogBufferTurboFilter 가 한다.
+ */
+public final class RequestLogBuffer {
+
+    static final int CAPACITY = 256;
+
+    private static final String FQCN = RequestLogBuffer.class.getName();
+    private static final ThreadLocal<RequestLogBuffer> CURRENT = ThreadLocal.withInitial(RequestLogBuffer::new);
+
+    private final Logger[] loggers = new Logger[CAPACITY];
+    private final Level[] levels = new Level[CAPACITY];
+    private final String[] formats = new String[CAPACITY];
+    private final Object[][] params = new Object[CAPACITY][];
+    private final Throwable[] throwables = new Throwable[CAPACITY];
+    private final long[] timestamps = new long[CAPACITY];
+
+    private String logId;
+    private boolean active;
+    private boolean flushed;
+    private long total; // 이번 요청에서 담은 전체 개수 (덮어쓴 것 포함)
+
+    private RequestLogBuffer() {
+    }
+
+    static RequestLogBuffer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 요청 시작 (LogInterceptor.preHandle)
+     */
+    public static void begin(String logId) {
+        RequestLogBuffer buffer = CURRENT.get();
+        buffer.clear();
+        buffer.logId = logId;
+        buffer.active = true;
+    }
+
+    /**
+     * 정상 종료, 담아둔 로그를 버린다.
+     */
+    public static void discard() {
+        RequestLogBuffer buffer = CURRENT.get();
+        buffer.clear();
+        buffer.active = false;
+    }
+
+    /**
+     * 오류 발생, 담아둔 로그를 모두 출력한다. 같은 요청에서 여러 번 호출돼도 한 번만 출력된다.
+     */
+    public static void flush() {
+        RequestLogBuffer buffer = CURRENT.get();
+        if (!buffer.active || buffer.flushed) {
+            return;
+        }
+        buffer.flushAll();
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    /**
+     * RequestLogBufferTurboFilter 에서만 호출된다.
+     */
+    void capture(Logger logger, Level level, String format, Object[] args, Throwable throwable) {
+        if (flushed) {
+            append(logger, level, format, args, throwable, System.currentTimeMillis());
+            return;
+        }
+        int slot = (int) (total % CAPACITY);
+        loggers[slot] = logger;
+        levels[slot] = level;
+        formats[slot] = format;
+        params[slot] = args;
+        throwables[slot] = throwable;
+        timestamps[slot] = System.currentTimeMillis();
+        total++;
+    }
+
+    private void flushAll() {
+        flushed = true;
+        long size = Math.min(total, CAPACITY);
+        if (size == 0) {
+            return;
+        }
+        Logger first = loggers[(int) ((total - size) % CAPACITY)];
+        append(first, Level.WARN, "[{}] flush {} buffered debug logs (dropped {})",
+                new Object[]{logId, size, total - size}, null, System.currentTimeMillis());
+        for (long i = total - size; i < total; i++) {
+            int slot = (int) (i % CAPACITY);
+            append(loggers[slot], levels[slot], formats[slot], params[slot], throwables[slot], timestamps[slot]);
+        }
+        clearSlots();
+    }
+
+    private static void append(Logger logger, Level level, String format, Object[] args, Throwable throwable,
+                               long timestamp) {
+        // 레벨 검사(와 TurboFilter)를 거치지 않고 appender 로 바로 보낸다.
+        LoggingEvent event = new LoggingEvent(FQCN, logger, level, format, throwable, args);
+        event.setTimeStamp(timestamp);
+        logger.callAppenders(event);
+    }
+
+    private void clear() {
+        clearSlots();
+        logId = null;
+        flushed = false;
+    }
+
+    private void clearSlots() {
+        // 요청이 끝난 뒤에도 인자 객체를 붙잡고 있지 않도록 사용한 칸만 비운다.
+        long size = Math.min(total, CAPACITY);
+        for (int i = 0; i < size; i++) {
+            loggers[i] = null;
+            formats[i] = null;
+            params[i] = null;
+            throwables[i] = null;
+            levels[i] = null;
+        }
+        total = 0;
+    }
+}
@@ -0,0 +1,42 @@
+package hello.exception.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 스프링 부트가 logback 설정을 마친 뒤 RequestLogBufferTurboFilter 를 등록한다.
+ *
+ * 기본은 꺼져있고 request-log-buffer.enabled=true 일 때만 등록한다. (필터가 없으면 버퍼는 항상 비어있다.)
+ * TurboFilter 는 LoggerContext 전체에 걸리므로, 등록되면 요청 밖의 로그와 INFO/WARN 로그까지 모든 스레드의
+ * 인자 있는 로그 호출이 필터 체인을 거친다. (호출마다 Object[] 할당과 ThreadLocal 조회)
+ * 켜기 전에 ./gradlew requestLogBufferOverhead 로 비용을 확인한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "request-log-buffer.enabled", havingValue = "true")
+public class RequestLogBufferInstaller {
+
+    private final RequestLogBufferTurboFilter turboFilter = new RequestLogBufferTurboFilter();
+
+    @PostConstruct
+    public void install() {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        turboFilter.setName("requestLogBuffer");
+        turboFilter.setContext(loggerContext);
+        turboFilter.start();
+        loggerContext.addTurboFilter(turboFilter);
+        log.info("request log buffer installed");
+    }
+
+    @PreDestroy
+    public void uninstall() {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        loggerContext.getTurboFilterList().remove(turboFilter);
+        turboFilter.stop();
+    }
+}
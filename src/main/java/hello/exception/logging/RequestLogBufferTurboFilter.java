@@ -0,0 +1,34 @@
+package hello.exception.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+/**
+ * 꺼져있는 DEBUG/TRACE 로그를 요청 버퍼에 담는 logback TurboFilter
+ *
+ * TurboFilter 는 레벨 검사 전에, 메시지를 포맷하기 전에 호출되므로 인자 참조만 복사하면 된다.
+ * (포맷은 flush 시점에 하므로 변경 가능한 인자는 그때의 상태로 출력된다. RequestLogBuffer 참고)
+ * 판단은 항상 NEUTRAL 로 돌려서 원래 로깅 동작에는 영향을 주지 않는다.
+ */
+public class RequestLogBufferTurboFilter extends TurboFilter {
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format == null 은 isDebugEnabled() 같은 레벨 확인 호출이다.
+        if (format == null || level.levelInt > Level.DEBUG_INT) {
+            return FilterReply.NEUTRAL;
+        }
+        // logger.isEnabledFor() 는 TurboFilter 를 다시 호출하므로 유효 레벨을 직접 비교한다.
+        if (logger.getEffectiveLevel().levelInt <= level.levelInt) {
+            return FilterReply.NEUTRAL; // 이미 출력되는 로그
+        }
+        RequestLogBuffer buffer = RequestLogBuffer.current();
+        if (buffer.isActive()) {
+            buffer.capture(logger, level, format, params, t);
+        }
+        return FilterReply.NEUTRAL;
+    }
+}
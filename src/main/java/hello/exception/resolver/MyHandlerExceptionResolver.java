@@ -1,15 +1,23 @@
 package hello.exception.resolver;
 
+import hello.exception.journal.ErrorJournal;
+import hello.exception.logging.RequestLogBuffer;
+import hello.exception.stats.ErrorCounters;
 import java.io.IOException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 import org.springframework.web.servlet.ModelAndView;
 
 @Slf4j
+@RequiredArgsConstructor
 public class MyHandlerExceptionResolver implements HandlerExceptionResolver {
 
+    private final ErrorCounters errorCounters;
+    private final ErrorJournal errorJournal;
+
     @Override
     public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
 
@@ -22,7 +30,10 @@ public class MyHandlerExceptionResolver implements HandlerExceptionResolver {
         try {
 
             if (ex instanceof IllegalArgumentException) {
+                RequestLogBuffer.flush();
                 log.info("IllegalArgumentException resolver to 400");
+                errorCounters.record(ex, HttpServletResponse.SC_BAD_REQUEST);
+                errorJournal.append(request, HttpServletResponse.SC_BAD_REQUEST, ex);
                 response.sendError(HttpServletResponse.SC_BAD_REQUEST, ex.getMessage());
                 return new ModelAndView();
                 // 빈 ModelAndView를 반환하면 뷰를 렌더링 하지 않고, 정상흐름으로 서블릿이 리턴된다.
@@ -0,0 +1,41 @@
+package hello.exception.resolver;
+
+import hello.exception.jfr.ExceptionResolvedEvent;
+import java.util.List;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * ExceptionResolver 체인 전체를 감싸서 ExceptionResolved JFR 이벤트를 남긴다.
+ *
+ * 예외가 체인에 들어온 시점부터 어떤 ExceptionResolver 가 처리(ModelAndView 반환)를 끝낼 때까지를 잰다.
+ * 앞에서 null 을 반환한 ExceptionResolver 들과 @ExceptionHandler 메서드 탐색, 응답 바디 작성까지 포함된다.
+ * 아무도 처리하지 못한 예외는 남기지 않는다. (ExceptionThrown 이벤트로 본다)
+ *
+ * WebConfig.extendHandlerExceptionResolvers 에서 기본 ExceptionResolver 와 직접 만든 ExceptionResolver 를
+ * 순서 그대로 넘겨받는다.
+ */
+public class TimedHandlerExceptionResolver implements HandlerExceptionResolver {
+
+    private final List<HandlerExceptionResolver> resolvers;
+
+    public TimedHandlerExceptionResolver(List<HandlerExceptionResolver> resolvers) {
+        this.resolvers = List.copyOf(resolvers);
+    }
+
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                         Exception ex) {
+        ExceptionResolvedEvent event = ExceptionResolvedEvent.start();
+        for (HandlerExceptionResolver resolver : resolvers) {
+            ModelAndView modelAndView = resolver.resolveException(request, response, handler, ex);
+            if (modelAndView != null) {
+                event.resolved(ex, handler, resolver.getClass().getSimpleName(), response.getStatus());
+                return modelAndView;
+            }
+        }
+        return null;
+    }
+}
@@ -2,26 +2,36 @@ package hello.exception.resolver;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import hello.exception.exception.UserException;
+import hello.exception.journal.ErrorJournal;
+import hello.exception.logging.RequestLogBuffer;
+import hello.exception.stats.ErrorCounters;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 import org.springframework.web.servlet.ModelAndView;
 
 @Slf4j
+@RequiredArgsConstructor
 public class UserHandlerExceptionResolver implements HandlerExceptionResolver {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ErrorCounters errorCounters;
+    private final ErrorJournal errorJournal;
 
     @Override
     public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
 
         try {
             if (ex instanceof UserException) {
+                RequestLogBuffer.flush();
                 log.info("UserException resolver to 400");
+                errorCounters.record(ex, HttpServletResponse.SC_BAD_REQUEST);
+                errorJournal.append(request, HttpServletResponse.SC_BAD_REQUEST, ex);
 
                 String acceptHeader = request.getHeader("Accept");
                 response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
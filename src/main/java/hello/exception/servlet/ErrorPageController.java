@@ -1,5 +1,6 @@
 package hello.exception.servlet;
 
+import hello.exception.jfr.ErrorViewRenderedEvent;
 import java.util.HashMap;
 import java.util.Map;
 import javax.servlet.RequestDispatcher;
@@ -29,6 +30,7 @@ public class ErrorPageController {
     public String errorPage404(HttpServletRequest request, HttpServletResponse response) {
         log.info("errorPage 404");
         printErrorInfo(request);
+        ErrorViewRenderedEvent.emit("error-page/404", request.getAttribute(ERROR_STATUS_CODE), request.getAttribute(ERROR_REQUEST_URI));
         return "error-page/404";
     }
 
@@ -36,6 +38,7 @@ public class ErrorPageController {
     public String errorPage500(HttpServletRequest request, HttpServletResponse response) {
         log.info("errorPage 500");
         printErrorInfo(request);
+        ErrorViewRenderedEvent.emit("error-page/500", request.getAttribute(ERROR_STATUS_CODE), request.getAttribute(ERROR_REQUEST_URI));
         return "error-page/500";
     }
 
@@ -49,6 +52,7 @@ public class ErrorPageController {
         result.put("message", ex.getMessage());
 
         Integer statusCode = (Integer) request.getAttribute(RequestDispatcher.ERROR_STATUS_CODE);
+        ErrorViewRenderedEvent.emit("json", statusCode, request.getAttribute(ERROR_REQUEST_URI));
         return new ResponseEntity<>(result, HttpStatus.valueOf(statusCode));
 
     }
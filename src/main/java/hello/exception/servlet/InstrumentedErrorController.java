@@ -0,0 +1,44 @@
+package hello.exception.servlet;
+
+import hello.exception.jfr.ErrorViewRenderedEvent;
+import java.util.List;
+import java.util.Map;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.web.ErrorProperties;
+import org.springframework.boot.autoconfigure.web.servlet.error.BasicErrorController;
+import org.springframework.boot.autoconfigure.web.servlet.error.ErrorViewResolver;
+import org.springframework.boot.web.servlet.error.ErrorAttributes;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * 스프링 부트 기본 오류 페이지(/error)를 그대로 처리하면서 ErrorViewRendered JFR 이벤트를 남긴다.
+ *
+ * WebServerCustomizer 가 등록되어 있지 않으면 ErrorPageController(/error-page/**) 는 호출되지 않고,
+ * 모든 오류 화면은 BasicErrorController 가 만든다. 매핑(@RequestMapping)은 부모 클래스의 것을 그대로 쓴다.
+ */
+public class InstrumentedErrorController extends BasicErrorController {
+
+    public InstrumentedErrorController(ErrorAttributes errorAttributes, ErrorProperties errorProperties,
+                                       List<ErrorViewResolver> errorViewResolvers) {
+        super(errorAttributes, errorProperties, errorViewResolvers);
+    }
+
+    @Override
+    public ModelAndView errorHtml(HttpServletRequest request, HttpServletResponse response) {
+        ModelAndView modelAndView = super.errorHtml(request, response);
+        ErrorViewRenderedEvent.emit(modelAndView.getViewName(), response.getStatus(),
+                request.getAttribute(RequestDispatcher.ERROR_REQUEST_URI));
+        return modelAndView;
+    }
+
+    @Override
+    public ResponseEntity<Map<String, Object>> error(HttpServletRequest request) {
+        ResponseEntity<Map<String, Object>> entity = super.error(request);
+        ErrorViewRenderedEvent.emit("json", entity.getStatusCodeValue(),
+                request.getAttribute(RequestDispatcher.ERROR_REQUEST_URI));
+        return entity;
+    }
+}
@@ -0,0 +1,44 @@
+package hello.exception.stats;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+/**
+ * 이 인스턴스의 예외 타입별, 상태 코드별 누적 카운터
+ *
+ * 예외 처리 경로(ExControllerAdvice, ExceptionResolver)에서 호출된다.
+ * 키가 한 번 만들어진 뒤에는 ConcurrentHashMap 조회 + LongAdder 증가만 하므로 요청 스레드끼리 락을 잡지 않는다.
+ */
+@Component
+public class ErrorCounters {
+
+    public static final String EXCEPTION_PREFIX = "ex:";
+    public static final String STATUS_PREFIX = "status:";
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    public void record(Exception ex, int status) {
+        increment(EXCEPTION_PREFIX + ex.getClass().getName());
+        increment(STATUS_PREFIX + status);
+    }
+
+    private void increment(String key) {
+        LongAdder adder = counters.get(key);
+        if (adder == null) {
+            adder = counters.computeIfAbsent(key, k -> new LongAdder());
+        }
+        adder.increment();
+    }
+
+    /**
+     * 현재 누적 값의 복사본 (키 정렬)
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        counters.forEach((key, adder) -> snapshot.put(key, adder.sum()));
+        return snapshot;
+    }
+}
@@ -0,0 +1,43 @@
+package hello.exception.stats;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 오류 카운터 조회
+ *
+ * http://localhost:8080/stats/errors
+ *  - local   : 이 인스턴스의 카운터
+ *  - peers   : 살아있는 peer 별 카운터 (error-stats.enabled=true 일 때)
+ *  - cluster : local + peers 합계
+ */
+@RestController
+@RequiredArgsConstructor
+public class ErrorStatsController {
+
+    private final ErrorCounters errorCounters;
+    private final ObjectProvider<ErrorStatsExchange> exchangeProvider;
+
+    @GetMapping("/stats/errors")
+    public Map<String, Object> errorStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        Map<String, Long> local = errorCounters.snapshot();
+        result.put("local", local);
+
+        ErrorStatsExchange exchange = exchangeProvider.getIfAvailable();
+        if (exchange == null) {
+            result.put("peers", Collections.emptyMap());
+            result.put("cluster", local);
+        } else {
+            result.put("instanceId", exchange.getInstanceId());
+            result.put("peers", exchange.peerCounters());
+            result.put("cluster", exchange.clusterCounters());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,244 @@
+package hello.exception.stats;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 인스턴스 간 오류 카운터 교환 (UDP)
+ *
+ * 주기마다 ErrorCounters 의 증가분(delta)만 peer 들에게 보내고, peer 들이 보낸 패킷을 받아서 합친다.
+ * 패킷이 유실되면 delta 만으로는 값을 복구할 수 없으므로 full-every 번째마다 누적 값 전체(full)를 보낸다.
+ * 수신 측은 seq 가 연속일 때만 delta 를 적용하고, 끊기면 다음 full 패킷까지 기다린다.
+ *
+ * 전송/수신은 별도 스레드에서 하므로 요청 스레드에는 아무 동기화도 추가되지 않는다.
+ *
+ * error-stats.enabled=true
+ * error-stats.port=9701
+ * error-stats.peers=127.0.0.1:9702,127.0.0.1:9703   (멀티캐스트 주소도 가능)
+ * error-stats.group=239.1.2.3                        (멀티캐스트 수신 시)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "error-stats.enabled", havingValue = "true")
+public class ErrorStatsExchange {
+
+    private static final int MAX_PACKET_SIZE = 64 * 1024;
+
+    private final ErrorCounters errorCounters;
+    private final String instanceId;
+    private final int port;
+    private final List<InetSocketAddress> peers;
+    private final String group;
+    private final long intervalMillis;
+    private final int fullEvery;
+    private final long peerTimeoutMillis;
+
+    private final Map<String, PeerState> peerStates = new ConcurrentHashMap<>();
+
+    // 전송 스레드 전용 상태
+    private Map<String, Long> lastPublished = Collections.emptyMap();
+    private long seq;
+
+    private MulticastSocket socket;
+    private ScheduledExecutorService publisher;
+    private Thread receiver;
+
+    public ErrorStatsExchange(ErrorCounters errorCounters,
+                              @Value("${error-stats.instance-id:}") String instanceId,
+                              @Value("${error-stats.port:9701}") int port,
+                              @Value("${error-stats.peers:}") List<String> peers,
+                              @Value("${error-stats.group:}") String group,
+                              @Value("${error-stats.interval-ms:1000}") long intervalMillis,
+                              @Value("${error-stats.full-every:10}") int fullEvery,
+                              @Value("${error-stats.peer-timeout-ms:10000}") long peerTimeoutMillis) {
+        this.errorCounters = errorCounters;
+        this.instanceId = instanceId.isEmpty() ? UUID.randomUUID().toString() : instanceId;
+        this.port = port;
+        this.peers = parsePeers(peers);
+        this.group = group;
+        this.intervalMillis = intervalMillis;
+        this.fullEvery = fullEvery;
+        this.peerTimeoutMillis = peerTimeoutMillis;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        socket = new MulticastSocket(port);
+        if (!group.isEmpty()) {
+            socket.joinGroup(InetAddress.getByName(group));
+        }
+
+        receiver = new Thread(this::receiveLoop, "error-stats-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+
+        publisher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "error-stats-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        publisher.scheduleAtFixedRate(this::publish, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("error stats exchange started instanceId={} port={} peers={}", instanceId, port, peers);
+    }
+
+    @PreDestroy
+    public void stop() {
+        publisher.shutdownNow();
+        socket.close(); // receive() 가 SocketException 으로 빠져나온다.
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    void publish() {
+        byte[] bytes;
+        try {
+            Map<String, Long> current = errorCounters.snapshot();
+            boolean full = seq % fullEvery == 0;
+            Map<String, Long> payload = full ? current : delta(lastPublished, current);
+            bytes = new ErrorStatsPacket(instanceId, seq, full, payload).encode();
+
+            // 일부 peer 에 보내지 못해도 seq 는 넘긴다.
+            // 같은 seq 로 다른 내용을 다시 보내면 이미 받은 peer 들이 어긋난다. 못 받은 peer 는 다음 full 패킷으로 맞춰진다.
+            lastPublished = current;
+            seq++;
+        } catch (Exception e) {
+            // 예외가 빠져나가면 scheduleAtFixedRate 가 멈추므로 여기서 잡는다.
+            log.warn("error stats publish failed", e);
+            return;
+        }
+
+        for (InetSocketAddress peer : peers) {
+            try {
+                send(new DatagramPacket(bytes, bytes.length, peer));
+            } catch (Exception e) {
+                log.warn("error stats send to {} failed", peer, e);
+            }
+        }
+    }
+
+    void send(DatagramPacket packet) throws IOException {
+        socket.send(packet);
+    }
+
+    private static Map<String, Long> delta(Map<String, Long> previous, Map<String, Long> current) {
+        Map<String, Long> delta = new HashMap<>();
+        current.forEach((key, value) -> {
+            long diff = value - previous.getOrDefault(key, 0L);
+            if (diff != 0) {
+                delta.put(key, diff);
+            }
+        });
+        return delta;
+    }
+
+    private void receiveLoop() {
+        byte[] buffer = new byte[MAX_PACKET_SIZE];
+        while (!socket.isClosed()) {
+            try {
+                DatagramPacket datagram = new DatagramPacket(buffer, buffer.length);
+                socket.receive(datagram);
+                ErrorStatsPacket packet = ErrorStatsPacket.decode(
+                        new ByteArrayInputStream(datagram.getData(), datagram.getOffset(), datagram.getLength()));
+                if (!packet.getInstanceId().equals(instanceId)) {
+                    peerStates.computeIfAbsent(packet.getInstanceId(), id -> new PeerState()).apply(packet);
+                }
+            } catch (SocketException e) {
+                if (!socket.isClosed()) {
+                    log.warn("error stats receive failed", e);
+                }
+            } catch (IOException e) {
+                log.warn("error stats packet dropped", e);
+            }
+        }
+    }
+
+    /**
+     * 살아있는 peer 들의 카운터 (peer id -> 카운터)
+     */
+    public Map<String, Map<String, Long>> peerCounters() {
+        long now = System.currentTimeMillis();
+        Map<String, Map<String, Long>> result = new TreeMap<>();
+        peerStates.forEach((id, state) -> {
+            if (now - state.lastSeen <= peerTimeoutMillis) {
+                result.put(id, state.copy());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 이 인스턴스와 살아있는 peer 들의 카운터를 합친 클러스터 전체 값
+     */
+    public Map<String, Long> clusterCounters() {
+        Map<String, Long> merged = new TreeMap<>(errorCounters.snapshot());
+        peerCounters().values().forEach(counters ->
+                counters.forEach((key, value) -> merged.merge(key, value, Long::sum)));
+        return merged;
+    }
+
+    private static List<InetSocketAddress> parsePeers(List<String> peers) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (String peer : peers) {
+            if (peer.isBlank()) {
+                continue;
+            }
+            int colon = peer.lastIndexOf(':');
+            addresses.add(new InetSocketAddress(peer.substring(0, colon).trim(),
+                    Integer.parseInt(peer.substring(colon + 1).trim())));
+        }
+        return addresses;
+    }
+
+    /**
+     * peer 한 개의 누적 카운터. 수신 스레드만 쓰고, 조회는 copy() 로 한다.
+     */
+    private static class PeerState {
+
+        private final Map<String, Long> counters = new ConcurrentHashMap<>();
+        private volatile long lastSeen;
+        private long lastSeq = -1;
+        private boolean synced;
+
+        void apply(ErrorStatsPacket packet) {
+            lastSeen = System.currentTimeMillis();
+            if (packet.isFull()) {
+                counters.clear();
+                counters.putAll(packet.getCounters());
+                synced = true;
+            } else if (synced && packet.getSeq() == lastSeq + 1) {
+                packet.getCounters().forEach((key, value) -> counters.merge(key, value, Long::sum));
+            } else {
+                synced = false; // 유실 또는 재시작, 다음 full 패킷까지 delta 는 버린다.
+            }
+            lastSeq = packet.getSeq();
+        }
+
+        Map<String, Long> copy() {
+            return new TreeMap<>(counters);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package hello.exception.stats;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 인스턴스 사이에 주고받는 카운터 패킷
+ *
+ * [magic:2][instanceId:UTF][seq:varlong][full:1][entryCount:varint]([key:UTF][value:varlong])*
+ *
+ * full 패킷은 누적 값 전체, delta 패킷은 직전 패킷 이후 증가분 중 0 이 아닌 것만 담는다.
+ */
+@Getter
+@AllArgsConstructor
+public class ErrorStatsPacket {
+
+    private static final short MAGIC = (short) 0xE5A7;
+
+    private final String instanceId;
+    private final long seq;
+    private final boolean full;
+    private final Map<String, Long> counters;
+
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeShort(MAGIC);
+        out.writeUTF(instanceId);
+        writeVarLong(out, seq);
+        out.writeBoolean(full);
+        writeVarLong(out, counters.size());
+        for (Map.Entry<String, Long> entry : counters.entrySet()) {
+            out.writeUTF(entry.getKey());
+            writeVarLong(out, entry.getValue());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    public static ErrorStatsPacket decode(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        if (in.readShort() != MAGIC) {
+            throw new IOException("not an error stats packet");
+        }
+        String instanceId = in.readUTF();
+        long seq = readVarLong(in);
+        boolean full = in.readBoolean();
+        long size = readVarLong(in);
+        Map<String, Long> counters = new LinkedHashMap<>();
+        for (long i = 0; i < size; i++) {
+            counters.put(in.readUTF(), readVarLong(in));
+        }
+        return new ErrorStatsPacket(instanceId, seq, full, counters);
+    }
+
+    // 카운터 값은 음수가 아니므로 7비트씩 나눠 쓰는 unsigned varint 로 충분하다.
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed varlong");
+    }
+}
@@ -0,0 +1,127 @@
+package hello.exception.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+        "logging.level.hello.exception=WARN",
+        "logging.level.org.springframework=WARN"
+})
+class ApiExceptionExportControllerTest {
+
+    // exportTest 태스크가 -Xmx 와 같은 값으로 넘겨준다. (build.gradle)
+    private static final long HEAP_LIMIT_MB = Long.getLong("export.heap-limit-mb", 0);
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    int port;
+
+    /**
+     * 1000 만 건을 작은 힙(./gradlew exportTest, -Xmx128m)에서 끝까지 읽는다.
+     * 응답을 메모리에 모으면 바디(약 500MB)가 힙에 들어가지 않으므로 OOM 으로 실패한다.
+     */
+    @Test
+    @Tag("export")
+    void streamsTenMillionRecordsUnderFixedHeap() throws Exception {
+        assertThat(HEAP_LIMIT_MB).as("run with ./gradlew exportTest (fixed small heap)").isPositive();
+        assertThat(Runtime.getRuntime().maxMemory())
+                .as("max heap under exportTest limit of %dMB", HEAP_LIMIT_MB)
+                .isLessThanOrEqualTo(HEAP_LIMIT_MB * 1024 * 1024);
+
+        long count = 10_000_000;
+        long userExAt = 5_000_000;
+        Counts counts = read("/api/export/members?count=" + count + "&userExAt=" + userExAt);
+
+        assertThat(counts.status).isEqualTo(200);
+        assertThat(counts.lines).isEqualTo(count);
+        assertThat(counts.members).isEqualTo(count - 1);
+        assertThat(counts.userExFrames).isEqualTo(1);
+        assertThat(counts.exFrames).isZero();
+        assertThat(counts.lastMember).isEqualTo("member-" + (count - 1));
+    }
+
+    @Test
+    void exFrameTerminatesStream() throws Exception {
+        Counts counts = read("/api/export/members?count=100&userExAt=3&exAt=7");
+
+        assertThat(counts.status).isEqualTo(200);
+        assertThat(counts.members).isEqualTo(6); // 0, 1, 2, 4, 5, 6
+        assertThat(counts.userExFrames).isEqualTo(1);
+        assertThat(counts.exFrames).isEqualTo(1);
+        assertThat(counts.lines).isEqualTo(8);
+    }
+
+    @Test
+    void emptyExportHasEmptyBody() throws Exception {
+        HttpResponse<String> response = get("/api/export/members?count=0");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).isEmpty();
+    }
+
+    @Test
+    void countOutOfRangeIsBadRequest() throws Exception {
+        HttpResponse<String> tooMany = get("/api/export/members?count=10000001");
+        HttpResponse<String> negative = get("/api/export/members?count=-1");
+
+        assertThat(tooMany.statusCode()).isEqualTo(400);
+        assertThat(tooMany.body()).contains("\"code\":\"BAD\"");
+        assertThat(negative.statusCode()).isEqualTo(400);
+    }
+
+    private Counts read(String path) throws Exception {
+        HttpResponse<java.io.InputStream> response = client.send(request(path),
+                HttpResponse.BodyHandlers.ofInputStream());
+        Counts counts = new Counts();
+        counts.status = response.statusCode();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(response.body(), StandardCharsets.UTF_8), 64 * 1024)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                counts.lines++;
+                if (line.startsWith("{\"memberId\":\"")) {
+                    counts.members++;
+                    counts.lastMember = line.substring(13, line.indexOf('"', 13));
+                } else if (line.startsWith("{\"code\":\"USER-EX\"")) {
+                    counts.userExFrames++;
+                } else if (line.startsWith("{\"code\":\"EX\"")) {
+                    counts.exFrames++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(request(path), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept", "application/x-ndjson, application/json")
+                .GET()
+                .build();
+    }
+
+    private static class Counts {
+        int status;
+        long lines;
+        long members;
+        long userExFrames;
+        long exFrames;
+        String lastMember;
+    }
+}
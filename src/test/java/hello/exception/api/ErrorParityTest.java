@@ -0,0 +1,53 @@
+package hello.exception.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * MVC 오류 응답이 error-parity.tsv 와 상태 코드, 바디 바이트까지 같은지 확인한다.
+ * WebFlux 모듈의 ReactiveErrorParityTest 가 같은 파일로 같은 확인을 한다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ErrorParityTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @ParameterizedTest(name = "{0} -> {1}")
+    @MethodSource("cases")
+    void sameStatusAndBodyAsWebFlux(String path, int status, String body) throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get(path).accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+
+        assertThat(response.getStatus()).isEqualTo(status);
+        assertThat(MediaType.parseMediaType(response.getContentType()).isCompatibleWith(MediaType.APPLICATION_JSON))
+                .isTrue();
+        assertThat(response.getContentAsByteArray()).isEqualTo(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Stream<Arguments> cases() throws IOException {
+        String tsv;
+        try (InputStream in = ErrorParityTest.class.getResourceAsStream("/error-parity.tsv")) {
+            tsv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        return tsv.lines()
+                .filter(line -> !line.isBlank() && !line.startsWith("#"))
+                .map(line -> line.split("\t"))
+                .map(fields -> Arguments.of(fields[0], Integer.parseInt(fields[1]), fields[2]));
+    }
+}
@@ -0,0 +1,38 @@
+package hello.exception.budget;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class CountMinSketchTest {
+
+    @Test
+    void sameHashCodeDoesNotShareCells() {
+        CountMinSketch sketch = new CountMinSketch(4, 65536);
+        // "Aa" 와 "BB" 는 String.hashCode() 가 같다. 앞뒤에 같은 문자열을 붙여도 계속 같다.
+        String victim = "ip:10.0.0.Aa";
+        String attacker = "ip:10.0.0.BB";
+        assertThat(attacker.hashCode()).isEqualTo(victim.hashCode());
+
+        for (int i = 0; i < 1000; i++) {
+            sketch.increment(attacker);
+        }
+
+        assertThat(sketch.estimate(attacker)).isEqualTo(1000);
+        assertThat(sketch.estimate(victim)).isZero();
+    }
+
+    @Test
+    void neverUnderestimates() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024); // 칸보다 키가 많아서 충돌이 생긴다.
+        for (int key = 0; key < 5000; key++) {
+            for (int i = 0; i <= key % 5; i++) {
+                sketch.increment("ip:" + key);
+            }
+        }
+
+        for (int key = 0; key < 5000; key++) {
+            assertThat(sketch.estimate("ip:" + key)).isGreaterThanOrEqualTo(key % 5 + 1);
+        }
+    }
+}
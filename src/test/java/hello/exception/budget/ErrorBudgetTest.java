@@ -0,0 +1,49 @@
+package hello.exception.budget;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ErrorBudgetTest {
+
+    @Test
+    void blocksClientOverBudget() {
+        ErrorBudget errorBudget = new ErrorBudget(3, 60_000, 4, 1024, 100);
+
+        for (int i = 0; i < 3; i++) {
+            errorBudget.recordClientError("ip:10.0.0.1");
+        }
+        assertThat(errorBudget.blockedFor("ip:10.0.0.1")).isZero();
+
+        errorBudget.recordClientError("ip:10.0.0.1");
+        assertThat(errorBudget.blockedFor("ip:10.0.0.1")).isPositive();
+        assertThat(errorBudget.blockedFor("ip:10.0.0.2")).isZero();
+    }
+
+    @Test
+    void fullTableIsSweptOnceEntriesExpire() throws InterruptedException {
+        long windowMillis = 500;
+        ErrorBudget errorBudget = new ErrorBudget(1, windowMillis, 4, 1024, 2);
+        overBudget(errorBudget, "ip:10.0.0.1");
+        overBudget(errorBudget, "ip:10.0.0.2");
+
+        overBudget(errorBudget, "ip:10.0.0.3");
+        assertThat(errorBudget.blockedFor("ip:10.0.0.3")).as("table full").isZero();
+        assertThat(errorBudget.blockedCount()).isEqualTo(2);
+
+        Thread.sleep(windowMillis * 3); // 앞의 두 클라이언트 차단이 만료된다.
+
+        overBudget(errorBudget, "ip:10.0.0.3");
+        assertThat(errorBudget.blockedFor("ip:10.0.0.3")).isPositive();
+        assertThat(errorBudget.blockedCount()).isEqualTo(1);
+    }
+
+    /**
+     * 예산(1)의 세 배. window 경계에 걸쳐도 넘도록.
+     */
+    private static void overBudget(ErrorBudget errorBudget, String client) {
+        for (int i = 0; i < 3; i++) {
+            errorBudget.recordClientError(client);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package hello.exception.coalesce;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class CoalescedResponseTest {
+
+    private static final byte[] BODY = "{\"code\":\"EX\",\"message\":\"내부 오류\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void keepsContentTypeMissingFromHeaderNames() throws Exception {
+        MockHttpServletResponse leader = new UncommittedTomcatResponse();
+        leader.setStatus(500);
+        leader.setContentType("application/json;charset=UTF-8");
+        leader.addHeader("X-Trace", "a");
+        leader.addHeader("X-Trace", "b");
+
+        MockHttpServletResponse follower = new MockHttpServletResponse();
+        new CoalescedResponse(leader, BODY).writeTo(follower);
+
+        assertThat(follower.getStatus()).isEqualTo(500);
+        assertThat(follower.getContentType()).isEqualTo("application/json;charset=UTF-8");
+        assertThat(follower.getCharacterEncoding()).isEqualTo("UTF-8");
+        assertThat(follower.getHeaders("X-Trace")).containsExactly("a", "b");
+        assertThat(follower.getContentLength()).isEqualTo(BODY.length);
+        assertThat(follower.getContentAsByteArray()).isEqualTo(BODY);
+    }
+
+    @Test
+    void dropsCookiesAndConnectionHeaders() throws Exception {
+        MockHttpServletResponse leader = new MockHttpServletResponse();
+        leader.setContentType("application/json");
+        leader.addHeader("Set-Cookie", "JSESSIONID=leader");
+        leader.addHeader("Connection", "close");
+        leader.addHeader("Keep-Alive", "timeout=20");
+        leader.addHeader("Date", "Mon, 19 Oct 2026 00:00:00 GMT");
+        leader.addHeader("Cache-Control", "no-store");
+
+        MockHttpServletResponse follower = new MockHttpServletResponse();
+        new CoalescedResponse(leader, BODY).writeTo(follower);
+
+        assertThat(follower.getHeaderNames()).doesNotContain("Set-Cookie", "Connection", "Keep-Alive", "Date");
+        assertThat(follower.getCookies()).isEmpty();
+        assertThat(follower.getHeader("Cache-Control")).isEqualTo("no-store");
+    }
+
+    /**
+     * Tomcat 처럼 커밋 전에는 Content-Type / Content-Length 를 getHeaderNames() 에 넣지 않는 응답
+     */
+    private static class UncommittedTomcatResponse extends MockHttpServletResponse {
+
+        @Override
+        public Collection<String> getHeaderNames() {
+            return super.getHeaderNames().stream()
+                    .filter(name -> !name.equalsIgnoreCase("Content-Type") && !name.equalsIgnoreCase("Content-Length"))
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package hello.exception.coalesce;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class CoalescingFilterTest {
+
+    private static final byte[] BODY = "{\"code\":\"EX\",\"message\":\"내부 오류\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final CoalescingMetrics metrics = new CoalescingMetrics();
+    private final CoalescingFilter filter =
+            new CoalescingFilter(Arrays.asList("Accept", "Authorization", "X-API-Key"), 5_000, 65536, metrics);
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private final CountDownLatch leaderStarted = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final FilterChain slowError = (request, response) -> {
+        executions.incrementAndGet();
+        leaderStarted.countDown();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        httpResponse.setStatus(500);
+        httpResponse.setContentType("application/json;charset=UTF-8");
+        httpResponse.getOutputStream().write(BODY);
+    };
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void followerGetsLeaderStatusContentTypeAndBody() throws Exception {
+        Future<MockHttpServletResponse> leader = executor.submit(() -> send(request()));
+        assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        AtomicReference<Thread> followerThread = new AtomicReference<>();
+        Future<MockHttpServletResponse> follower = executor.submit(() -> {
+            followerThread.set(Thread.currentThread());
+            return send(request());
+        });
+        awaitWaiting(followerThread);
+        release.countDown();
+
+        MockHttpServletResponse shared = follower.get(5, TimeUnit.SECONDS);
+        assertThat(leader.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(500);
+        assertThat(executions).hasValue(1);
+        assertThat(metrics.followers.sum()).isEqualTo(1);
+        assertThat(shared.getStatus()).isEqualTo(500);
+        assertThat(shared.getContentType()).isEqualTo("application/json;charset=UTF-8");
+        assertThat(shared.getContentAsByteArray()).isEqualTo(BODY);
+    }
+
+    @Test
+    void requestWithCookieIsNotCoalesced() throws Exception {
+        release.countDown();
+        MockHttpServletRequest request = request();
+        request.addHeader("Cookie", "JSESSIONID=abc");
+
+        send(request);
+
+        assertThat(executions).hasValue(1);
+        assertThat(metrics.bypassed.sum()).isEqualTo(1);
+        assertThat(metrics.leaders.sum()).isZero();
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, slowError);
+        return response;
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/members/ex");
+        request.addHeader("Accept", "application/json");
+        return request;
+    }
+
+    /**
+     * follower 가 leader 의 결과를 기다리기 시작할 때까지 (CompletableFuture.get(timeout) 에서 멈출 때까지) 기다린다.
+     */
+    private static void awaitWaiting(AtomicReference<Thread> thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while ((thread.get() == null || thread.get().getState() != Thread.State.TIMED_WAITING)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
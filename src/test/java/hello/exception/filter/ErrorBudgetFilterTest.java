@@ -0,0 +1,40 @@
+package hello.exception.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hello.exception.budget.ErrorBudget;
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ErrorBudgetFilterTest {
+
+    private final ErrorBudgetFilter filter = new ErrorBudgetFilter(new ErrorBudget(3, 60_000, 4, 1024, 100));
+    private final FilterChain badRequest = (request, response) ->
+            ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+
+    @Test
+    void rotatingApiKeyDoesNotEscapeBudget() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            send("10.0.0.1", "key-" + i);
+        }
+
+        MockHttpServletResponse response = send("10.0.0.1", "key-new");
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isNotNull();
+        assertThat(response.getContentAsString()).contains("TOO-MANY-ERRORS");
+
+        assertThat(send("10.0.0.2", "key-0").getStatus()).isEqualTo(400);
+    }
+
+    private MockHttpServletResponse send(String remoteAddr, String apiKey) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/members/bad");
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader("X-API-Key", apiKey);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, badRequest);
+        return response;
+    }
+}
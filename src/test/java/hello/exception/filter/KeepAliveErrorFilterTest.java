@@ -0,0 +1,87 @@
+package hello.exception.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class KeepAliveErrorFilterTest {
+
+    private static final byte[] ERROR_BODY = "{\"code\":\"BAD\",\"message\":\"잘못된 입력 값\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final KeepAliveErrorFilter filter = new KeepAliveErrorFilter(1024);
+
+    @Test
+    void errorBodyIsSentWithContentLength() throws Exception {
+        boolean[] committedOnFlush = new boolean[1];
+
+        MockHttpServletResponse response = send((request, res) -> {
+            HttpServletResponse httpResponse = (HttpServletResponse) res;
+            httpResponse.setStatus(400);
+            httpResponse.setContentType("application/json");
+            httpResponse.getOutputStream().write(ERROR_BODY);
+            httpResponse.flushBuffer(); // 메시지 컨버터처럼 쓰고 나서 flush 한다.
+            committedOnFlush[0] = httpResponse.isCommitted();
+        });
+
+        assertThat(committedOnFlush[0]).as("error response committed on flush").isFalse();
+        assertThat(response.getContentLength()).isEqualTo(ERROR_BODY.length);
+        assertThat(response.getContentAsByteArray()).isEqualTo(ERROR_BODY);
+        assertThat(response.getContentType()).isEqualTo("application/json");
+    }
+
+    @Test
+    void normalResponseFlushCommitsImmediately() throws Exception {
+        boolean[] committedOnFlush = new boolean[1];
+
+        MockHttpServletResponse response = send((request, res) -> {
+            HttpServletResponse httpResponse = (HttpServletResponse) res;
+            httpResponse.getWriter().write("hello");
+            httpResponse.flushBuffer();
+            committedOnFlush[0] = httpResponse.isCommitted();
+            httpResponse.getWriter().write(" world");
+        });
+
+        assertThat(committedOnFlush[0]).as("normal response committed on flush").isTrue();
+        assertThat(response.getContentAsString()).isEqualTo("hello world");
+    }
+
+    @Test
+    void largeErrorBodyIsStreamed() throws Exception {
+        byte[] body = new byte[4096];
+        Arrays.fill(body, (byte) 'x');
+
+        MockHttpServletResponse response = send((request, res) -> {
+            HttpServletResponse httpResponse = (HttpServletResponse) res;
+            httpResponse.setStatus(500);
+            httpResponse.getOutputStream().write(body);
+        });
+
+        assertThat(response.getContentLength()).isZero(); // Content-Length 를 정하지 않았다. (chunked)
+        assertThat(response.getContentAsByteArray()).isEqualTo(body);
+    }
+
+    @Test
+    void sendErrorDiscardsBufferedBody() throws Exception {
+        MockHttpServletResponse response = send((request, res) -> {
+            HttpServletResponse httpResponse = (HttpServletResponse) res;
+            httpResponse.setStatus(400);
+            httpResponse.getOutputStream().write(ERROR_BODY);
+            httpResponse.sendError(404);
+        });
+
+        assertThat(response.getStatus()).isEqualTo(404);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    private MockHttpServletResponse send(FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/members/bad"), response, chain);
+        return response;
+    }
+}
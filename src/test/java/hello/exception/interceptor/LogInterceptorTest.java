@@ -0,0 +1,82 @@
+package hello.exception.interceptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+import javax.servlet.DispatcherType;
+import javax.servlet.RequestDispatcher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * 같은 요청이 여러 번 디스패치(REQUEST -> ASYNC, REQUEST -> ERROR)되어도 LogInterceptor 의 logId 가 바뀌지 않는지 확인한다.
+ * (저널과 로그에서 한 요청을 같은 logId 로 묶기 위해)
+ */
+@SpringBootTest(properties = {
+        "logging.level.hello.exception=WARN",
+        "logging.level.org.springframework=WARN"
+})
+@AutoConfigureMockMvc
+class LogInterceptorTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void asyncDispatchKeepsLogId() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/export/members").param("count", "3")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String logId = (String) started.getRequest().getAttribute(LogInterceptor.LOG_ID);
+        assertThat(logId).isNotNull();
+
+        MvcResult dispatched = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(dispatched.getRequest().getDispatcherType()).isEqualTo(DispatcherType.ASYNC);
+        assertThat(dispatched.getRequest().getAttribute(LogInterceptor.LOG_ID)).isEqualTo(logId);
+        assertThat(dispatched.getResponse().getContentAsString()).contains("\"memberId\":\"member-2\"");
+    }
+
+    /**
+     * MockMvc 는 WAS 의 오류 페이지 요청을 하지 않으므로, WAS 가 하듯이 같은 요청 속성을 가진 ERROR 디스패치를 직접 만든다.
+     * /error-page/** 는 인터셉터 대상이라 preHandle 이 다시 호출된다.
+     */
+    @Test
+    void errorDispatchKeepsLogId() throws Exception {
+        String logId = UUID.randomUUID().toString();
+
+        MvcResult result = mockMvc.perform(get("/error-page/500")
+                        .requestAttr(LogInterceptor.LOG_ID, logId)
+                        .requestAttr(RequestDispatcher.ERROR_STATUS_CODE, 500)
+                        .requestAttr(RequestDispatcher.ERROR_REQUEST_URI, "/error-ex")
+                        .with(request -> {
+                            request.setDispatcherType(DispatcherType.ERROR);
+                            return request;
+                        }))
+                .andReturn();
+
+        assertThat(result.getRequest().getAttribute(LogInterceptor.LOG_ID)).isEqualTo(logId);
+    }
+
+    @Test
+    void eachRequestGetsNewLogId() throws Exception {
+        Object first = mockMvc.perform(get("/api/members/spring").accept(MediaType.APPLICATION_JSON))
+                .andReturn().getRequest().getAttribute(LogInterceptor.LOG_ID);
+        Object second = mockMvc.perform(get("/api/members/spring").accept(MediaType.APPLICATION_JSON))
+                .andReturn().getRequest().getAttribute(LogInterceptor.LOG_ID);
+
+        assertThat(first).isNotNull().isNotEqualTo(second);
+    }
+}
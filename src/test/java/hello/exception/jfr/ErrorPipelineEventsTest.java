@@ -0,0 +1,128 @@
+package hello.exception.jfr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+
+/**
+ * 기본 설정(logFilter 미등록, 인터셉터의 /error 제외, WebServerCustomizer 미등록) 그대로
+ * 실제 서버에서 ERROR 요청이 일어날 때 ErrorDispatch / ErrorViewRendered / ExceptionThrown 이벤트가 남는지 확인한다.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+        "logging.level.hello.exception=WARN",
+        "logging.level.org.springframework=WARN"
+})
+class ErrorPipelineEventsTest {
+
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    int port;
+
+    @TempDir
+    Path dir;
+
+    private Recording recording;
+
+    @BeforeEach
+    void startRecording() {
+        recording = new Recording();
+        recording.enable(ErrorDispatchEvent.class);
+        recording.enable(ErrorViewRenderedEvent.class);
+        recording.enable(ExceptionThrownEvent.class);
+        recording.start();
+    }
+
+    @AfterEach
+    void closeRecording() {
+        recording.close();
+    }
+
+    @Test
+    void unresolvedExceptionRecordsDispatchViewAndThrown() throws Exception {
+        assertThat(get("/error-ex").statusCode()).isEqualTo(500);
+
+        List<RecordedEvent> events = awaitEvents("/error-ex", 3);
+
+        assertThat(events).extracting(event -> event.getEventType().getName())
+                .containsExactlyInAnyOrder("hello.exception.ErrorDispatch", "hello.exception.ErrorViewRendered",
+                        "hello.exception.ExceptionThrown");
+        RecordedEvent dispatch = find(events, "hello.exception.ErrorDispatch");
+        assertThat(dispatch.getString("errorPath")).isEqualTo("/error");
+        assertThat(dispatch.getInt("status")).isEqualTo(500);
+        RecordedEvent view = find(events, "hello.exception.ErrorViewRendered");
+        assertThat(view.getString("view")).isEqualTo("json");
+        assertThat(view.getInt("status")).isEqualTo(500);
+        assertThat(find(events, "hello.exception.ExceptionThrown").getString("exceptionType"))
+                .isEqualTo(RuntimeException.class.getName());
+    }
+
+    @Test
+    void sendErrorRecordsDispatchAndViewOnly() throws Exception {
+        assertThat(get("/error-404").statusCode()).isEqualTo(404);
+
+        List<RecordedEvent> events = awaitEvents("/error-404", 2);
+
+        assertThat(events).extracting(event -> event.getEventType().getName())
+                .containsExactlyInAnyOrder("hello.exception.ErrorDispatch", "hello.exception.ErrorViewRendered");
+        assertThat(find(events, "hello.exception.ErrorDispatch").getInt("status")).isEqualTo(404);
+    }
+
+    @Test
+    void resolvedExceptionDoesNotDispatchToErrorPage() throws Exception {
+        assertThat(get("/api/members/bad").statusCode()).isEqualTo(400);
+        assertThat(get("/error-ex").statusCode()).isEqualTo(500); // 이 요청의 이벤트가 보이면 앞 요청 이벤트도 이미 기록된 것이다.
+
+        awaitEvents("/error-ex", 3);
+
+        assertThat(events("/api/members/bad")).isEmpty();
+    }
+
+    private List<RecordedEvent> awaitEvents(String uri, int expected) throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        List<RecordedEvent> events = events(uri);
+        while (events.size() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            events = events(uri);
+        }
+        return events;
+    }
+
+    private List<RecordedEvent> events(String uri) throws Exception {
+        Path file = dir.resolve("recording.jfr");
+        recording.dump(file);
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> uri.equals(event.getString("uri")))
+                .collect(Collectors.toList());
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,58 @@
+package hello.exception.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ErrorJournalDictionaryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void registerDoesNotWriteUntilFlush() throws Exception {
+        Path file = dir.resolve("uris.dict");
+        ErrorJournalDictionary dictionary = new ErrorJournalDictionary(file, 10);
+
+        assertThat(dictionary.idOf("/api/members/{id}")).isZero();
+        assertThat(dictionary.idOf("/no-such/1")).isEqualTo(1);
+        assertThat(dictionary.idOf("/api/members/{id}")).isZero();
+        assertThat(dictionary.valueOf(1)).isEqualTo("/no-such/1");
+        assertThat(Files.readAllLines(file)).isEmpty(); // 요청 스레드에서는 파일에 쓰지 않는다.
+
+        dictionary.flush();
+        dictionary.idOf("/no-such/2");
+        dictionary.close();
+
+        assertThat(Files.readAllLines(file)).containsExactly("/api/members/{id}", "/no-such/1", "/no-such/2");
+    }
+
+    @Test
+    void reopenContinuesIds() throws Exception {
+        Path file = dir.resolve("types.dict");
+        ErrorJournalDictionary first = new ErrorJournalDictionary(file, 10);
+        first.idOf("a");
+        first.idOf("b");
+        first.close();
+
+        ErrorJournalDictionary second = new ErrorJournalDictionary(file, 10);
+        assertThat(second.idOf("b")).isEqualTo(1);
+        assertThat(second.idOf("c")).isEqualTo(2);
+        second.close();
+
+        assertThat(Files.readAllLines(file)).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void overflowBeyondMaxSize() throws Exception {
+        ErrorJournalDictionary dictionary = new ErrorJournalDictionary(dir.resolve("uris.dict"), 2);
+        dictionary.idOf("a");
+        dictionary.idOf("b");
+
+        assertThat(dictionary.idOf("c")).isEqualTo(ErrorJournalDictionary.OVERFLOW_ID);
+        dictionary.close();
+    }
+}
@@ -0,0 +1,190 @@
+package hello.exception.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hello.exception.exception.UserException;
+import hello.exception.interceptor.LogInterceptor;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+class ErrorJournalTest {
+
+    private static final long BASE = 1_700_000_000_000L;
+    private static final int MESSAGE_BYTES = 64 * 1024;
+
+    @TempDir
+    Path dir;
+
+    private ErrorJournal journal;
+
+    @AfterEach
+    void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void appendAndReplay() throws IOException {
+        journal = open(1024, 16);
+        String logId = UUID.randomUUID().toString();
+
+        journal.append(BASE, request(logId, "/api/members/{id}"), 400, new UserException("사용자 오류"));
+        journal.append(BASE + 1, request(null, null), 500, new RuntimeException());
+
+        List<ErrorJournalEntry> entries = journal.query(0, Long.MAX_VALUE, null, Integer.MAX_VALUE);
+        assertThat(entries).containsExactly(
+                new ErrorJournalEntry(BASE, logId, 400, UserException.class.getName(), "/api/members/{id}", "사용자 오류"),
+                new ErrorJournalEntry(BASE + 1, null, 500, RuntimeException.class.getName(), "/api/members/1", null));
+    }
+
+    @Test
+    void longMessageIsCutOnCharacterBoundary() throws IOException {
+        journal = open(1024, 16);
+        String message = "사용자 오류!".repeat(100); // 1700 바이트, 한글은 3 바이트라 1024 바이트째가 글자 중간이다.
+
+        journal.append(BASE, request(null, null), 400, new UserException(message));
+
+        String replayed = journal.query(0, Long.MAX_VALUE, null, 1).get(0).getMessage();
+        assertThat(replayed).doesNotContain("\uFFFD");
+        assertThat(message).startsWith(replayed);
+        assertThat(replayed.getBytes(StandardCharsets.UTF_8).length).isBetween(1024 - 2, 1024);
+    }
+
+    @Test
+    void timestampsNeverGoBackwards() throws IOException {
+        journal = open(1024, 16);
+
+        journal.append(BASE + 10, request(null, null), 400, new IllegalArgumentException());
+        journal.append(BASE, request(null, null), 400, new IllegalArgumentException()); // 시계가 뒤로 간 경우
+
+        assertThat(timestamps(journal.query(0, Long.MAX_VALUE, null, Integer.MAX_VALUE)))
+                .containsExactly(BASE + 10, BASE + 10);
+    }
+
+    @Test
+    void rollsToNextSegmentWhenFull() throws IOException {
+        journal = open(4, 16);
+
+        appendSequence(journal, 0, 10);
+
+        assertThat(Files.exists(dir.resolve("0000000000.rec"))).isTrue();
+        assertThat(Files.exists(dir.resolve("0000000001.rec"))).isTrue();
+        assertThat(Files.exists(dir.resolve("0000000002.rec"))).isTrue();
+        assertThat(messages(journal.query(0, Long.MAX_VALUE, null, Integer.MAX_VALUE)))
+                .containsExactlyElementsOf(range(0, 10));
+    }
+
+    @Test
+    void deletesOldestSegmentsBeyondRetention() throws Exception {
+        journal = open(4, 3);
+
+        appendSequence(journal, 0, 20); // 세그먼트 0 ~ 4, 남는 것은 2 ~ 4
+
+        // 조회 목록에서는 바로 빠지고, 파일은 flusher 스레드가 지운다.
+        assertThat(messages(journal.query(0, Long.MAX_VALUE, null, Integer.MAX_VALUE)))
+                .containsExactlyElementsOf(range(8, 20));
+        awaitDeleted(dir.resolve("0000000001.msg"));
+        assertThat(Files.exists(dir.resolve("0000000000.rec"))).isFalse();
+        assertThat(Files.exists(dir.resolve("0000000000.msg"))).isFalse();
+        assertThat(Files.exists(dir.resolve("0000000001.rec"))).isFalse();
+        assertThat(Files.exists(dir.resolve("0000000002.rec"))).isTrue();
+    }
+
+    @Test
+    void reopenRebuildsIndexAndReloadsDictionaries() throws IOException {
+        journal = open(1024, 16);
+        appendSequence(journal, 0, 1500); // 2 세그먼트, 희소 인덱스 블록 여러 개
+        List<ErrorJournalEntry> before = journal.query(0, Long.MAX_VALUE, null, Integer.MAX_VALUE);
+        journal.close();
+
+        journal = open(1024, 16);
+
+        assertThat(journal.query(0, Long.MAX_VALUE, null, Integer.MAX_VALUE)).isEqualTo(before);
+        assertThat(journal.query(BASE + 1100, BASE + 1100, null, 10))
+                .extracting(ErrorJournalEntry::getMessage).containsExactly("m-1100");
+
+        // 이어서 쓰면 사전 id 와 시간 순서가 이어진다.
+        journal.append(BASE + 1500, request(null, "/api/members/{id}"), 400, new IllegalArgumentException("m-1500"));
+        List<ErrorJournalEntry> after = journal.query(0, Long.MAX_VALUE, null, Integer.MAX_VALUE);
+        assertThat(after).hasSize(1501);
+        assertThat(after.get(1500).getExceptionType()).isEqualTo(IllegalArgumentException.class.getName());
+        assertThat(after.get(1500).getUri()).isEqualTo("/api/members/{id}");
+        assertThat(Files.readAllLines(dir.resolve("types.dict"))).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void replayFiltersByTimeAndStatus() throws IOException {
+        journal = open(1024, 16);
+        appendSequence(journal, 0, 2000); // 짝수 400, 홀수 500
+
+        List<ErrorJournalEntry> entries = journal.query(BASE + 300, BASE + 1399, 500, Integer.MAX_VALUE);
+        assertThat(entries).hasSize(550);
+        assertThat(entries).allMatch(entry -> entry.getStatus() == 500);
+        assertThat(timestamps(entries)).isSorted()
+                .allMatch(timestamp -> timestamp >= BASE + 300 && timestamp <= BASE + 1399);
+
+        assertThat(messages(journal.query(BASE + 300, Long.MAX_VALUE, 400, 3)))
+                .containsExactly("m-300", "m-302", "m-304");
+        assertThat(journal.query(BASE + 5000, Long.MAX_VALUE, null, 10)).isEmpty();
+        assertThat(journal.query(0, BASE - 1, null, 10)).isEmpty();
+    }
+
+    private static void awaitDeleted(Path file) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (Files.exists(file) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private ErrorJournal open(int segmentRecords, int maxSegments) throws IOException {
+        ErrorJournal journal = new ErrorJournal(true, dir.toString(), segmentRecords, MESSAGE_BYTES, maxSegments, 60_000);
+        journal.open();
+        return journal;
+    }
+
+    /**
+     * i 번째 레코드 : timestamp BASE + i, 짝수는 400 / 홀수는 500, 메시지 "m-i"
+     */
+    private static void appendSequence(ErrorJournal journal, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Exception ex = i % 2 == 0 ? new IllegalArgumentException("m-" + i) : new RuntimeException("m-" + i);
+            journal.append(BASE + i, request(UUID.randomUUID().toString(), "/api/members/{id}"),
+                    i % 2 == 0 ? 400 : 500, ex);
+        }
+    }
+
+    private static MockHttpServletRequest request(String logId, String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/members/1");
+        if (logId != null) {
+            request.setAttribute(LogInterceptor.LOG_ID, logId);
+        }
+        if (pattern != null) {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        }
+        return request;
+    }
+
+    private static List<String> range(int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> "m-" + i).collect(Collectors.toList());
+    }
+
+    private static List<String> messages(List<ErrorJournalEntry> entries) {
+        return entries.stream().map(ErrorJournalEntry::getMessage).collect(Collectors.toList());
+    }
+
+    private static List<Long> timestamps(List<ErrorJournalEntry> entries) {
+        return entries.stream().map(ErrorJournalEntry::getTimestamp).collect(Collectors.toList());
+    }
+}
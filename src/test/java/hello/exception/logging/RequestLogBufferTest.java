@@ -0,0 +1,166 @@
+package hello.exception.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import hello.exception.api.ApiExceptionController;
+import hello.exception.exception.UserException;
+import hello.exception.interceptor.LogInterceptor;
+import hello.exception.journal.ErrorJournal;
+import hello.exception.resolver.MyHandlerExceptionResolver;
+import hello.exception.resolver.UserHandlerExceptionResolver;
+import hello.exception.stats.ErrorCounters;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * request-log-buffer.enabled=true 일 때 오류가 난 요청만 DEBUG 로그가 출력되는지 확인한다.
+ *
+ * - 정상 요청 : LogInterceptor.afterCompletion 에서 버린다.
+ * - ExControllerAdvice, MyHandlerExceptionResolver, UserHandlerExceptionResolver,
+ *   LogInterceptor.afterCompletion(ex != null) : 버퍼를 출력한다.
+ *
+ * 두 ExceptionResolver 는 /api/** 예외를 ExControllerAdvice 가 먼저 처리하므로 직접 호출한다.
+ * TurboFilter 는 JVM 전체에 걸리므로 테스트가 끝나면 컨텍스트를 닫아서 해제한다.
+ */
+@SpringBootTest(properties = {
+        "request-log-buffer.enabled=true",
+        "logging.level.hello.exception=INFO",
+        "logging.level.org.springframework=WARN"
+})
+@AutoConfigureMockMvc
+@DirtiesContext
+class RequestLogBufferTest {
+
+    private static final String FLUSH_HEADER = "[{}] flush {} buffered debug logs (dropped {})";
+
+    private final LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+    private final Logger controllerLogger = loggerContext.getLogger(ApiExceptionController.class);
+    private final Logger testLogger = loggerContext.getLogger(RequestLogBufferTest.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private final ErrorCounters errorCounters = new ErrorCounters();
+    private final ErrorJournal errorJournal = new ErrorJournal(false, "build/unused-journal", 1024, 65536, 1, 1000);
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void attachAppender() {
+        appender.setContext(loggerContext);
+        appender.start();
+        controllerLogger.addAppender(appender);
+        testLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    void detachAppender() {
+        controllerLogger.detachAppender(appender);
+        testLogger.detachAppender(appender);
+        RequestLogBuffer.discard();
+    }
+
+    @Test
+    void successfulRequestDiscardsDebugLogs() throws Exception {
+        mockMvc.perform(get("/api/members/spring").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        assertThat(controllerLogger.isDebugEnabled()).isFalse();
+        assertThat(formats(Level.DEBUG)).doesNotContain("getMember id={}");
+        assertThat(formats(Level.WARN)).doesNotContain(FLUSH_HEADER);
+    }
+
+    @Test
+    void controllerAdviceFlushesDebugLogs() throws Exception {
+        mockMvc.perform(get("/api/members/ex").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isInternalServerError());
+
+        assertThat(formats(Level.WARN)).containsExactly(FLUSH_HEADER);
+        List<ILoggingEvent> debug = events(Level.DEBUG);
+        assertThat(debug).extracting(ILoggingEvent::getFormattedMessage).containsExactly("getMember id=ex");
+    }
+
+    @Test
+    void myResolverFlushesDebugLogs() {
+        MyHandlerExceptionResolver resolver = new MyHandlerExceptionResolver(errorCounters, errorJournal);
+
+        RequestLogBuffer.begin("my-resolver");
+        testLogger.debug("before {}", "my-resolver");
+        resolver.resolveException(new MockHttpServletRequest("GET", "/bad"), new MockHttpServletResponse(), null,
+                new IllegalArgumentException("잘못된 입력 값"));
+
+        assertThat(formats(Level.WARN)).containsExactly(FLUSH_HEADER);
+        assertThat(events(Level.DEBUG)).extracting(ILoggingEvent::getFormattedMessage)
+                .containsExactly("before my-resolver");
+    }
+
+    @Test
+    void userResolverFlushesDebugLogs() {
+        UserHandlerExceptionResolver resolver = new UserHandlerExceptionResolver(errorCounters, errorJournal);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user-ex");
+        request.addHeader("Accept", "application/json");
+
+        RequestLogBuffer.begin("user-resolver");
+        testLogger.debug("before {}", "user-resolver");
+        resolver.resolveException(request, new MockHttpServletResponse(), null, new UserException("사용자 오류"));
+
+        assertThat(formats(Level.WARN)).containsExactly(FLUSH_HEADER);
+        assertThat(events(Level.DEBUG)).extracting(ILoggingEvent::getFormattedMessage)
+                .containsExactly("before user-resolver");
+    }
+
+    @Test
+    void afterCompletionWithExceptionFlushesDebugLogs() throws Exception {
+        LogInterceptor interceptor = new LogInterceptor();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/error-ex");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, null);
+        testLogger.debug("before {}", "error-ex");
+        interceptor.afterCompletion(request, response, null, new RuntimeException("예외 발생"));
+
+        assertThat(formats(Level.WARN)).containsExactly(FLUSH_HEADER);
+        assertThat(events(Level.DEBUG)).extracting(ILoggingEvent::getFormattedMessage)
+                .containsExactly("before error-ex");
+    }
+
+    @Test
+    void afterCompletionWithoutExceptionDiscardsDebugLogs() throws Exception {
+        LogInterceptor interceptor = new LogInterceptor();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/ok");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, null);
+        testLogger.debug("before {}", "ok");
+        interceptor.afterCompletion(request, response, null, null);
+        RequestLogBuffer.flush(); // 이미 버린 요청이므로 아무것도 출력하지 않는다.
+
+        assertThat(appender.list).isEmpty();
+    }
+
+    private List<ILoggingEvent> events(Level level) {
+        return appender.list.stream().filter(event -> event.getLevel() == level).collect(Collectors.toList());
+    }
+
+    private List<String> formats(Level level) {
+        return events(level).stream().map(ILoggingEvent::getMessage).collect(Collectors.toList());
+    }
+}
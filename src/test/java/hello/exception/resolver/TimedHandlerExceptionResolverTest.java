@@ -0,0 +1,100 @@
+package hello.exception.resolver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hello.exception.jfr.ExceptionResolvedEvent;
+import hello.exception.journal.ErrorJournal;
+import hello.exception.stats.ErrorCounters;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * ExceptionResolved 이벤트가 체인에 들어온 시점부터 잰 시간으로, 실제로 처리한 ExceptionResolver 이름과 함께 남는지 확인한다.
+ */
+class TimedHandlerExceptionResolverTest {
+
+    private static final Duration SLOW = Duration.ofMillis(20);
+
+    @TempDir
+    Path dir;
+
+    private Recording recording;
+
+    private final ErrorCounters errorCounters = new ErrorCounters();
+    private final ErrorJournal errorJournal = new ErrorJournal(false, "build/unused-journal", 1024, 65536, 1, 1000);
+
+    @BeforeEach
+    void startRecording() {
+        recording = new Recording();
+        recording.enable(ExceptionResolvedEvent.class).withThreshold(Duration.ZERO);
+        recording.start();
+    }
+
+    @AfterEach
+    void closeRecording() {
+        recording.close();
+    }
+
+    @Test
+    void durationStartsBeforeEarlierResolvers() throws Exception {
+        HandlerExceptionResolver slowSkip = (request, response, handler, ex) -> {
+            sleep(SLOW);
+            return null;
+        };
+        TimedHandlerExceptionResolver resolver = new TimedHandlerExceptionResolver(
+                List.of(slowSkip, new MyHandlerExceptionResolver(errorCounters, errorJournal)));
+
+        ModelAndView modelAndView = resolver.resolveException(new MockHttpServletRequest("GET", "/bad"),
+                new MockHttpServletResponse(), "timed-slow", new IllegalArgumentException("잘못된 입력 값"));
+
+        assertThat(modelAndView).isNotNull();
+        List<RecordedEvent> events = events("timed-slow");
+        assertThat(events).hasSize(1);
+        RecordedEvent event = events.get(0);
+        assertThat(event.getString("resolver")).isEqualTo("MyHandlerExceptionResolver");
+        assertThat(event.getString("exceptionType")).isEqualTo(IllegalArgumentException.class.getName());
+        assertThat(event.getInt("status")).isEqualTo(400);
+        assertThat(event.getDuration()).isGreaterThanOrEqualTo(SLOW);
+    }
+
+    @Test
+    void unresolvedExceptionIsNotRecorded() throws Exception {
+        HandlerExceptionResolver skip = (request, response, handler, ex) -> null;
+        TimedHandlerExceptionResolver resolver = new TimedHandlerExceptionResolver(List.of(skip));
+
+        ModelAndView modelAndView = resolver.resolveException(new MockHttpServletRequest("GET", "/error-ex"),
+                new MockHttpServletResponse(), "timed-unresolved", new RuntimeException("예외 발생"));
+
+        assertThat(modelAndView).isNull();
+        assertThat(events("timed-unresolved")).isEmpty();
+    }
+
+    private List<RecordedEvent> events(String handler) throws Exception {
+        Path file = dir.resolve("recording.jfr");
+        recording.dump(file);
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> handler.equals(event.getString("handler")))
+                .collect(Collectors.toList());
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package hello.exception.stats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 루프백에서 ErrorStatsExchange 3 개(a, b, c)를 띄워서 카운터를 교환한다.
+ *
+ * 자동 전송 주기는 길게 잡고 publish() 를 직접 호출해서 seq 를 제어한다. (full-every=3 : seq 0, 3, 6 이 full)
+ * a 의 전송은 send() 를 덮어써서 특정 peer 로 가는 패킷을 버리거나 실패시킨다.
+ */
+class ErrorStatsExchangeTest {
+
+    private static final long NO_AUTO_PUBLISH = 3_600_000;
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    private final ErrorCounters countersA = new ErrorCounters();
+    private final ErrorCounters countersB = new ErrorCounters();
+    private final ErrorCounters countersC = new ErrorCounters();
+
+    // a 가 보내는 패킷 중 이 주소로 가는 것은 버린다. (유실)
+    private final Set<SocketAddress> dropFromA = ConcurrentHashMap.newKeySet();
+    // a 가 보내는 패킷 중 이 주소로 가는 것은 send 가 실패한다.
+    private final Set<SocketAddress> failFromA = ConcurrentHashMap.newKeySet();
+
+    private InetSocketAddress addressB;
+    private ErrorStatsExchange a;
+    private ErrorStatsExchange b;
+    private ErrorStatsExchange c;
+
+    @BeforeEach
+    void start() throws IOException {
+        int portA = freePort();
+        int portB = freePort();
+        int portC = freePort();
+        addressB = new InetSocketAddress("127.0.0.1", portB);
+
+        // b 를 마지막 peer 로 둔다. b 로 보내다 실패할 때 c 는 이미 같은 seq 를 받은 상태다.
+        a = new ErrorStatsExchange(countersA, "a", portA, peers(portC, portB), "", NO_AUTO_PUBLISH, 3, 60_000) {
+            @Override
+            void send(DatagramPacket packet) throws IOException {
+                if (failFromA.contains(packet.getSocketAddress())) {
+                    throw new IOException("send failed");
+                }
+                if (!dropFromA.contains(packet.getSocketAddress())) {
+                    super.send(packet);
+                }
+            }
+        };
+        b = new ErrorStatsExchange(countersB, "b", portB, peers(portA, portC), "", NO_AUTO_PUBLISH, 3, 60_000);
+        c = new ErrorStatsExchange(countersC, "c", portC, peers(portA, portB), "", NO_AUTO_PUBLISH, 3, 60_000);
+        a.start();
+        b.start();
+        c.start();
+    }
+
+    @AfterEach
+    void stop() {
+        a.stop();
+        b.stop();
+        c.stop();
+    }
+
+    @Test
+    void clusterCountersMergeAllInstances() throws Exception {
+        record(countersA, 3);
+        record(countersB, 5);
+        record(countersC, 7);
+
+        publishAll(); // seq 0 (full)
+
+        Map<String, Long> expected = expected(15);
+        awaitEquals(a::clusterCounters, expected);
+        awaitEquals(b::clusterCounters, expected);
+        awaitEquals(c::clusterCounters, expected);
+        assertThat(b.peerCounters()).containsOnlyKeys("a", "c");
+
+        record(countersA, 2);
+        record(countersC, 1);
+        publishAll(); // seq 1 (delta)
+
+        awaitEquals(b::clusterCounters, expected(18));
+    }
+
+    @Test
+    void droppedDeltaResyncsOnNextFullPacket() throws Exception {
+        record(countersA, 10);
+        publishAll(); // seq 0 (full)
+        awaitEquals(b::clusterCounters, expected(10));
+        awaitEquals(c::clusterCounters, expected(10));
+
+        dropFromA.add(addressB);
+        record(countersA, 5);
+        a.publish(); // seq 1 (delta) -> b 에서 유실
+        awaitEquals(c::clusterCounters, expected(15));
+        assertThat(b.clusterCounters()).isEqualTo(expected(10));
+
+        dropFromA.clear();
+        record(countersA, 2);
+        a.publish(); // seq 2 (delta) -> b 는 seq 가 끊겼으므로 버리고 full 을 기다린다.
+        awaitEquals(c::clusterCounters, expected(17));
+
+        a.publish(); // seq 3 (full)
+        // b 에서 보이는 값은 유실 전 값(10)에서 full 값(17)으로 바로 넘어가야 한다. (10 + 2 = 12 처럼 잘못 합치면 안 된다)
+        awaitEquals(b::clusterCounters, expected(17), expected(10));
+    }
+
+    @Test
+    void failedSendToOnePeerDoesNotDesyncOthers() throws Exception {
+        record(countersA, 1);
+        a.publish(); // seq 0 (full)
+        awaitEquals(c::clusterCounters, expected(1));
+
+        failFromA.add(addressB);
+        record(countersA, 1);
+        a.publish(); // seq 1 (delta) -> c 는 받고, b 로는 send 실패
+        failFromA.clear();
+
+        record(countersA, 1);
+        a.publish(); // seq 2 (delta) -> c 는 seq 가 이어지므로 그대로 적용한다.
+        awaitEquals(c::clusterCounters, expected(3));
+
+        a.publish(); // seq 3 (full) -> b 도 맞춰진다.
+        awaitEquals(b::clusterCounters, expected(3), expected(1));
+    }
+
+    private void publishAll() {
+        a.publish();
+        b.publish();
+        c.publish();
+    }
+
+    private static void record(ErrorCounters counters, int times) {
+        for (int i = 0; i < times; i++) {
+            counters.record(new IllegalArgumentException(), 400);
+        }
+    }
+
+    private static Map<String, Long> expected(long total) {
+        Map<String, Long> expected = new TreeMap<>();
+        expected.put(ErrorCounters.EXCEPTION_PREFIX + IllegalArgumentException.class.getName(), total);
+        expected.put(ErrorCounters.STATUS_PREFIX + 400, total);
+        return expected;
+    }
+
+    /**
+     * 수신은 별도 스레드에서 하므로 기대 값이 될 때까지 기다린다. 기다리는 동안 보이는 값은 allowed 중 하나여야 한다.
+     */
+    @SafeVarargs
+    private static void awaitEquals(Supplier<Map<String, Long>> actual, Map<String, Long> expected,
+                                    Map<String, Long>... allowed) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        Map<String, Long> current = actual.get();
+        while (!current.equals(expected) && System.currentTimeMillis() < deadline) {
+            if (allowed.length > 0) {
+                assertThat(current).as("intermediate view").isIn((Object[]) allowed);
+            }
+            Thread.sleep(10);
+            current = actual.get();
+        }
+        assertThat(current).isEqualTo(expected);
+    }
+
+    private static List<String> peers(int... ports) {
+        return Arrays.stream(ports).mapToObj(port -> "127.0.0.1:" + port).collect(Collectors.toList());
+    }
+
+    private static int freePort() throws IOException {
+        try (DatagramSocket socket = new DatagramSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
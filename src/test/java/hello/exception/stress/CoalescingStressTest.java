@@ -0,0 +1,93 @@
+package hello.exception.stress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hello.exception.coalesce.CoalescingMetrics;
+import hello.exception.stats.ErrorCounters;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+
+/**
+ * 요청 병합(CoalescingFilter)을 켠 실제 서버에 같은 오류 요청을 수백 스레드로 보내는 스트레스 테스트
+ *
+ * 확인하는 것
+ *  - leader 응답이든 병합된 follower 응답이든 상태 코드, Content-Type, Content-Length, 바디가 요청에 맞다.
+ *  - 필터를 거친 요청 수(leaders + followers + timeouts + bypassed) = 보낸 요청 수
+ *  - 실제로 실행된 요청(leaders + timeouts + bypassed)만 ErrorCounters 에 기록된다. (follower 는 advice 를 거치지 않는다)
+ */
+@Tag("stress")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+        "coalescing.enabled=true",
+        "request-log-buffer.enabled=false",
+        "keep-alive-errors.enabled=true",
+        "logging.level.hello.exception=WARN",
+        "logging.level.hello.exception.exhandler=OFF",
+        "logging.level.org.springframework=WARN"
+})
+class CoalescingStressTest {
+
+    private static final int THREADS = 200;
+    private static final int ITERATIONS = 50;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    ErrorCounters errorCounters;
+    @Autowired
+    CoalescingMetrics coalescingMetrics;
+
+    @Test
+    void coalescedErrorResponsesMatchAndAreCountedOnce() throws Exception {
+        Map<String, Object> before = coalescingMetrics.snapshot();
+        long recordedBefore = recordedErrors();
+
+        Concurrently.run(THREADS, ITERATIONS, (thread, i) -> {
+            String id = MemberResponses.ERROR_IDS[(thread + i) % MemberResponses.ERROR_IDS.length];
+            MemberResponses.verify(id, get("/api/members/" + id));
+        });
+
+        Map<String, Object> after = coalescingMetrics.snapshot();
+        long leaders = delta(before, after, "leaders");
+        long followers = delta(before, after, "followers");
+        long timeouts = delta(before, after, "timeouts");
+        long bypassed = delta(before, after, "bypassed");
+
+        assertThat(leaders + followers + timeouts + bypassed).isEqualTo((long) THREADS * ITERATIONS);
+        assertThat(recordedErrors() - recordedBefore).isEqualTo(leaders + timeouts + bypassed);
+        assertThat(delta(before, after, "followerErrors")).isEqualTo(followers);
+    }
+
+    private long recordedErrors() {
+        Map<String, Long> counters = errorCounters.snapshot();
+        return counters.getOrDefault("status:400", 0L) + counters.getOrDefault("status:500", 0L);
+    }
+
+    private static long delta(Map<String, Object> before, Map<String, Object> after, String key) {
+        return (long) after.get(key) - (long) before.get(key);
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,68 @@
+package hello.exception.stress;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 스트레스 테스트용 실행기
+ *
+ * threads 개의 스레드를 시작 신호에 맞춰 동시에 출발시키고, 각 스레드가 iterations 번 action 을 실행한다.
+ * 어느 스레드에서든 실패(assert 포함)가 나면 모아서 첫 번째 실패와 함께 테스트를 실패시킨다.
+ */
+class Concurrently {
+
+    @FunctionalInterface
+    interface Action {
+        void run(int thread, int iteration) throws Exception;
+    }
+
+    /**
+     * @return 전체 실행 시간 (nanos)
+     */
+    static long run(int threads, int iterations, Action action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                ready.countDown();
+                start.await();
+                for (int i = 0; i < iterations; i++) {
+                    try {
+                        action.run(thread, i);
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }
+                return null;
+            }));
+        }
+
+        ready.await();
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+
+        if (!failures.isEmpty()) {
+            AssertionError error = new AssertionError(failures.size() + " failures, first: " + failures.peek());
+            error.initCause(failures.peek());
+            throw error;
+        }
+        return elapsed;
+    }
+}
@@ -0,0 +1,130 @@
+package hello.exception.stress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import hello.exception.journal.ErrorJournal;
+import hello.exception.journal.ErrorJournalEntry;
+import hello.exception.stats.ErrorCounters;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+
+/**
+ * 실제 서버(Tomcat)에 수백 스레드로 정상/오류 요청을 섞어 보내는 스트레스 테스트
+ *
+ * 요청 병합(CoalescingFilter)은 끈다. 켜면 대부분의 오류 요청이 leader 의 응답을 받아가므로 오류 처리 경로를 거의 타지 않는다.
+ * (병합은 CoalescingStressTest 에서 따로 확인한다)
+ *
+ * 확인하는 것
+ *  - 모든 응답이 자기 요청에 맞는 상태 코드, Content-Type, 바디(ErrorResult)를 정확히 받는다. (다른 요청 응답이 섞이지 않는다)
+ *  - 오류 응답은 Content-Length 를 가진다. (KeepAliveErrorFilter)
+ *  - 보낸 오류 요청 수 = ErrorCounters 의 4xx/5xx 증가분 = ErrorJournal 레코드 증가분, 저널의 logId 는 모두 다르다.
+ *  - 200 스레드의 처리량이 8 스레드 처리량의 25% 밑으로 떨어지지 않는다. (락 경합으로 무너지지 않는다)
+ */
+@Tag("stress")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+        "coalescing.enabled=false",
+        "error-journal.enabled=true",
+        "error-journal.dir=build/stress-journal/${random.uuid}",
+        "request-log-buffer.enabled=false",
+        "keep-alive-errors.enabled=true",
+        "logging.level.hello.exception=WARN",
+        "logging.level.hello.exception.exhandler=OFF",
+        "logging.level.org.springframework=WARN"
+})
+class ErrorPathStressTest {
+
+    private static final int THREADS = 200;
+    private static final int ITERATIONS = 50;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    ErrorCounters errorCounters;
+    @Autowired
+    ErrorJournal errorJournal;
+
+    @Test
+    void mixedTrafficKeepsResponsesAndCountersConsistent() throws Exception {
+        // 같은 컨텍스트를 쓰는 다른 테스트가 먼저 돌았을 수 있으므로 증가분으로 비교한다.
+        long recordedBefore = recordedErrors();
+        int journaledBefore = journal().size();
+        LongAdder errorsSent = new LongAdder();
+
+        Concurrently.run(THREADS, ITERATIONS, (thread, i) -> {
+            // 4 번 중 1 번은 정상 요청, 나머지는 오류 요청
+            String id = i % 4 == 0 ? "m-" + thread + "-" + i
+                    : MemberResponses.ERROR_IDS[(thread + i) % MemberResponses.ERROR_IDS.length];
+            if (i % 4 != 0) {
+                errorsSent.increment();
+            }
+            MemberResponses.verify(id, get("/api/members/" + id));
+        });
+
+        assertThat(recordedErrors() - recordedBefore).isEqualTo(errorsSent.sum());
+        List<ErrorJournalEntry> entries = journal();
+        assertThat(entries.size() - journaledBefore).isEqualTo(errorsSent.sum());
+        List<String> logIds = entries.stream().map(ErrorJournalEntry::getLogId).collect(Collectors.toList());
+        assertThat(logIds).allMatch(Objects::nonNull).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void throughputDoesNotCollapseUnderContention() throws Exception {
+        int requests = 20_000;
+        errorRequests(8, requests); // 워밍업 (JIT, 커넥션)
+
+        double low = requests / seconds(errorRequests(8, requests));
+        double high = requests / seconds(errorRequests(THREADS, requests));
+
+        assertThat(high).as("throughput at %d threads (%.0f req/s) vs 8 threads (%.0f req/s)", THREADS, high, low)
+                .isGreaterThanOrEqualTo(low * 0.25);
+    }
+
+    private long errorRequests(int threads, int requests) throws Exception {
+        return Concurrently.run(threads, requests / threads, (thread, i) -> {
+            String id = MemberResponses.ERROR_IDS[(thread + i) % MemberResponses.ERROR_IDS.length];
+            MemberResponses.verify(id, get("/api/members/" + id));
+        });
+    }
+
+    private long recordedErrors() {
+        Map<String, Long> counters = errorCounters.snapshot();
+        return counters.getOrDefault("status:400", 0L) + counters.getOrDefault("status:500", 0L);
+    }
+
+    private List<ErrorJournalEntry> journal() {
+        return errorJournal.query(0, Long.MAX_VALUE, null, Integer.MAX_VALUE);
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,56 @@
+package hello.exception.stress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.http.HttpResponse;
+import org.springframework.http.MediaType;
+
+/**
+ * 스트레스 테스트에서 /api/members/{id} 응답이 자기 요청에 맞는지 확인한다.
+ *
+ * 모든 응답(병합된 follower 응답 포함)은 JSON Content-Type 을 가져야 하고,
+ * 오류 응답은 Content-Length 도 가져야 한다. (KeepAliveErrorFilter 를 켠 테스트에서 사용, 정상 응답은 chunked 일 수 있다)
+ */
+class MemberResponses {
+
+    static final String[] ERROR_IDS = {"ex", "bad", "user-ex"};
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    static void verify(String id, HttpResponse<String> response) throws Exception {
+        assertThat(response.headers().firstValue("Content-Type")).as("content-type of %s", id)
+                .hasValueSatisfying(contentType -> assertThat(MediaType.parseMediaType(contentType)
+                        .isCompatibleWith(MediaType.APPLICATION_JSON)).as("json content-type of %s", id).isTrue());
+        if (response.statusCode() >= 400) {
+            assertThat(response.headers().firstValue("Content-Length")).as("content-length of %s", id).isPresent();
+        }
+
+        JsonNode body = objectMapper.readTree(response.body());
+        switch (id) {
+            case "ex":
+                assertThat(response.statusCode()).isEqualTo(500);
+                assertThat(body.path("code").asText()).isEqualTo("EX");
+                assertThat(body.path("message").asText()).isEqualTo("내부 오류");
+                break;
+            case "bad":
+                assertThat(response.statusCode()).isEqualTo(400);
+                assertThat(body.path("code").asText()).isEqualTo("BAD");
+                assertThat(body.path("message").asText()).isEqualTo("잘못된 입력 값");
+                break;
+            case "user-ex":
+                assertThat(response.statusCode()).isEqualTo(400);
+                assertThat(body.path("code").asText()).isEqualTo("USER-EX");
+                assertThat(body.path("message").asText()).isEqualTo("사용자 오류");
+                break;
+            default:
+                assertThat(response.statusCode()).isEqualTo(200);
+                assertThat(body.path("memberId").asText()).isEqualTo(id);
+                assertThat(body.path("name").asText()).isEqualTo("hello " + id);
+        }
+    }
+
+    private MemberResponses() {
+    }
+}
@@ -0,0 +1,154 @@
+package hello.exception.stress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.exception.exception.UserException;
+import hello.exception.journal.ErrorJournal;
+import hello.exception.logging.RequestLogBuffer;
+import hello.exception.logging.RequestLogBufferTurboFilter;
+import hello.exception.resolver.MyHandlerExceptionResolver;
+import hello.exception.resolver.UserHandlerExceptionResolver;
+import hello.exception.stats.ErrorCounters;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * ExceptionResolver, RequestLogBuffer 를 수백 스레드에서 직접 호출하는 스트레스 테스트
+ *
+ * 요청마다 고유한 값(메시지, URI)을 넣고, 응답/속성/로그에 정확히 자기 값만 남는지 확인한다.
+ * (공유 ObjectMapper, 공유 카운터, ThreadLocal 버퍼에서 값이 섞이거나 사라지는지)
+ */
+@Tag("stress")
+class ResolverStressTest {
+
+    private static final int THREADS = 200;
+    private static final int ITERATIONS = 500;
+
+    private static final LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+    private static Level originalRootLevel;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ErrorCounters errorCounters = new ErrorCounters();
+    private final ErrorJournal errorJournal = new ErrorJournal(false, "build/unused-journal", 1024, 65536, 1, 1000);
+
+    @BeforeAll
+    static void quietLogs() {
+        // 스프링 없이 실행하면 logback 기본 설정(DEBUG, 콘솔)이라 로그만으로 테스트가 느려진다.
+        Logger root = loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        originalRootLevel = root.getLevel();
+        root.setLevel(Level.OFF);
+    }
+
+    @AfterAll
+    static void restoreLogs() {
+        loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).setLevel(originalRootLevel);
+    }
+
+    @Test
+    void userResolverWritesOwnBodyUnderContention() throws Exception {
+        UserHandlerExceptionResolver resolver = new UserHandlerExceptionResolver(errorCounters, errorJournal);
+
+        Concurrently.run(THREADS, ITERATIONS, (thread, i) -> {
+            String message = "user-" + thread + "-" + i;
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/members/user-ex");
+            request.addHeader("Accept", "application/json");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            ModelAndView modelAndView = resolver.resolveException(request, response, null, new UserException(message));
+
+            assertThat(modelAndView).isNotNull();
+            assertThat(response.getStatus()).isEqualTo(400);
+            Map<?, ?> body = objectMapper.readValue(response.getContentAsByteArray(), Map.class);
+            assertThat(body.get("message")).isEqualTo(message);
+            assertThat(body.get("ex")).isEqualTo(UserException.class.getName());
+        });
+
+        assertThat(errorCounters.snapshot())
+                .containsEntry("ex:" + UserException.class.getName(), (long) THREADS * ITERATIONS)
+                .containsEntry("status:400", (long) THREADS * ITERATIONS);
+    }
+
+    @Test
+    void myResolverSendsOwnErrorUnderContention() throws Exception {
+        MyHandlerExceptionResolver resolver = new MyHandlerExceptionResolver(errorCounters, errorJournal);
+
+        Concurrently.run(THREADS, ITERATIONS, (thread, i) -> {
+            String message = "bad-" + thread + "-" + i;
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/members/bad");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            ModelAndView modelAndView = resolver.resolveException(request, response, null,
+                    new IllegalArgumentException(message));
+
+            assertThat(modelAndView).isNotNull();
+            assertThat(response.getStatus()).isEqualTo(400);
+            assertThat(response.getErrorMessage()).isEqualTo(message);
+        });
+
+        assertThat(errorCounters.snapshot())
+                .containsEntry("ex:" + IllegalArgumentException.class.getName(), (long) THREADS * ITERATIONS);
+    }
+
+    @Test
+    void requestLogBufferFlushesOnlyOwnEvents() throws Exception {
+        Logger logger = loggerContext.getLogger("stress.buffer");
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.setContext(loggerContext);
+        appender.start();
+        logger.addAppender(appender);
+
+        RequestLogBufferTurboFilter turboFilter = new RequestLogBufferTurboFilter();
+        turboFilter.setContext(loggerContext);
+        turboFilter.start();
+        loggerContext.addTurboFilter(turboFilter);
+
+        try {
+            Concurrently.run(THREADS, ITERATIONS, (thread, i) -> {
+                String id = thread + "-" + i;
+                RequestLogBuffer.begin(id);
+                logger.debug("value {}", id);
+                logger.debug("value {}", id);
+                if (i % 2 == 0) {
+                    RequestLogBuffer.flush(); // 오류가 난 요청
+                }
+                RequestLogBuffer.discard();
+            });
+        } finally {
+            loggerContext.getTurboFilterList().remove(turboFilter);
+            logger.detachAppender(appender);
+        }
+
+        int flushed = THREADS * ITERATIONS / 2;
+        Map<String, Integer> debugPerId = new ConcurrentHashMap<>();
+        long headers = 0;
+        for (ILoggingEvent event : appender.list) {
+            if (event.getLevel() == Level.WARN) {
+                headers++;
+                continue;
+            }
+            String id = (String) event.getArgumentArray()[0];
+            int iteration = Integer.parseInt(id.substring(id.indexOf('-') + 1));
+            assertThat(iteration % 2).as("discarded request was flushed: %s", id).isZero();
+            debugPerId.merge(id, 1, Integer::sum);
+        }
+        assertThat(headers).isEqualTo(flushed);
+        assertThat(debugPerId).hasSize(flushed);
+        assertThat(debugPerId.values()).allMatch(count -> count == 2);
+    }
+}
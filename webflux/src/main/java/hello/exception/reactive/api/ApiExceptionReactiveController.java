@@ -0,0 +1,51 @@
+package hello.exception.reactive.api;
+
+import hello.exception.exception.BadRequestException;
+import hello.exception.exception.UserException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * ApiExceptionController 의 WebFlux(Netty, 이벤트 루프) 버전
+ *
+ * 예외는 Mono.error 로 흘려보내고, ExReactiveControllerAdvice 가 MVC 와 같은 ErrorResult 로 바꾼다.
+ */
+@Slf4j
+@RestController
+public class ApiExceptionReactiveController {
+
+    @GetMapping("/api/members/{id}")
+    public Mono<MemberDto> getMember(@PathVariable("id") String id) {
+
+        if (id.equals("ex")) {
+            return Mono.error(new RuntimeException("잘못된 사용자"));
+        }
+
+        if (id.equals("bad")) {
+            return Mono.error(new IllegalArgumentException("잘못된 입력 값"));
+        }
+
+        if (id.equals("user-ex")) {
+            return Mono.error(new UserException("사용자 오류"));
+        }
+
+        return Mono.just(new MemberDto(id, "hello " + id));
+    }
+
+    @GetMapping("/api/response-status-ex1")
+    public Mono<String> responseStatusEx1() {
+        return Mono.error(new BadRequestException());
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class MemberDto {
+        private String memberId;
+        private String name;
+    }
+}
@@ -0,0 +1,46 @@
+package hello.exception.reactive.exhandler;
+
+import hello.exception.exception.UserException;
+import hello.exception.exhandler.ErrorResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * ExControllerAdvice 의 WebFlux 버전
+ *
+ * @RestControllerAdvice, @ExceptionHandler 는 WebFlux 에서도 같은 방식으로 동작한다.
+ * 코드, 메시지, 상태 코드를 ExControllerAdvice 와 똑같이 맞춰서 두 스택의 오류 바디가 같도록 한다.
+ *
+ * 참고로 BadRequestException 은 @ResponseStatus(400) 가 붙어있지만,
+ * MVC 에서도 ResponseStatusExceptionResolver 보다 @ExceptionHandler 가 먼저이므로 exHandler 가 처리해서 EX / 500 이 된다.
+ * 여기서도 그대로 맞춘다.
+ */
+@Slf4j
+@RestControllerAdvice(basePackages = "hello.exception.reactive.api")
+public class ExReactiveControllerAdvice {
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ErrorResult illegalExHandler(IllegalArgumentException e) {
+        log.error("[exceptionHandler] ex", e);
+        return new ErrorResult("BAD", e.getMessage());
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<ErrorResult> userExHandler(UserException e) {
+        log.error("[exceptionHandler] ex", e);
+        ErrorResult errorResult = new ErrorResult("USER-EX", e.getMessage());
+        return new ResponseEntity<>(errorResult, HttpStatus.BAD_REQUEST);
+    }
+
+    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+    @ExceptionHandler
+    public ErrorResult exHandler(Exception e) {
+        log.error("[exceptionHandler] ex", e);
+        return new ErrorResult("EX", "내부 오류");
+    }
+}
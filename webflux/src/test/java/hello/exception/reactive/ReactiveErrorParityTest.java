@@ -0,0 +1,52 @@
+package hello.exception.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * WebFlux 오류 응답이 error-parity.tsv (루트 프로젝트 src/test/resources) 와 상태 코드, 바디 바이트까지 같은지 확인한다.
+ * 루트 프로젝트의 ErrorParityTest 가 같은 파일로 MVC 를 확인한다.
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+class ReactiveErrorParityTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @ParameterizedTest(name = "{0} -> {1}")
+    @MethodSource("cases")
+    void sameStatusAndBodyAsMvc(String path, int status, String body) {
+        webTestClient.get().uri(path)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isEqualTo(status)
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .consumeWith(result -> assertThat(result.getResponseBody())
+                        .isEqualTo(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static Stream<Arguments> cases() throws IOException {
+        String tsv;
+        try (InputStream in = ReactiveErrorParityTest.class.getResourceAsStream("/error-parity.tsv")) {
+            tsv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        return tsv.lines()
+                .filter(line -> !line.isBlank() && !line.startsWith("#"))
+                .map(line -> line.split("\t"))
+                .map(fields -> Arguments.of(fields[0], Integer.parseInt(fields[1]), fields[2]));
+    }
+}